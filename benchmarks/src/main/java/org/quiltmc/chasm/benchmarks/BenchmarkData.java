@@ -0,0 +1,225 @@
+package org.quiltmc.chasm.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.Remapper;
+import org.quiltmc.chasm.api.Transformation;
+import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.util.ClassInfo;
+import org.quiltmc.chasm.api.util.Context;
+import org.quiltmc.chasm.internal.transformer.ChasmLangTransformer;
+import org.quiltmc.chasm.internal.tree.ClassNode;
+import org.quiltmc.chasm.lang.api.ast.Ast;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+
+/**
+ * The inputs of the benchmarks: the test data classes and transformers of chasm, copied a given number of times.
+ *
+ * <p>Every copy of the test data classes is moved into its own package, and every transformer is applied to the
+ * class it was written for in every copy.
+ */
+public class BenchmarkData {
+    private static final Path CLASSES = Paths.get(System.getProperty(
+            "chasm.benchmarks.classes", "../chasm/build/classes/java/testData"));
+    private static final Path TRANSFORMERS = Paths.get(System.getProperty(
+            "chasm.benchmarks.transformers", "../chasm/src/testData/transformers"));
+
+    // Transformers and the class they target, as in the transformation tests
+    private static final String[][] TARGETS = {
+            {"add_field", "empty/EmptyClass"},
+            {"add_field_2", "empty/EmptyClass"},
+            {"add_method", "empty/EmptyClass"},
+            {"test_local_variables", "other/TestLocalVariables"},
+            {"test_merge_insns", "other/TestMergeInsns"},
+            {"touch", "other/ExampleClass"},
+    };
+
+    private final List<byte[]> classes = new ArrayList<>();
+    private final Map<String, Integer> classIndices = new HashMap<>();
+    private final Map<String, String> transformers = new HashMap<>();
+    private final int copies;
+
+    private BenchmarkData(int copies) {
+        this.copies = copies;
+    }
+
+    /**
+     * Loads the test data classes and transformers.
+     *
+     * @param copies The number of copies of every test data class.
+     * @return The loaded inputs.
+     * @throws IOException If the test data can't be read. Make sure the test data of chasm was compiled.
+     */
+    public static BenchmarkData load(int copies) throws IOException {
+        BenchmarkData data = new BenchmarkData(copies);
+
+        Map<String, byte[]> originals = new HashMap<>();
+        List<String> names;
+        try (Stream<Path> files = Files.walk(CLASSES)) {
+            names = files.filter(file -> file.toString().endsWith(".class"))
+                    .map(file -> CLASSES.relativize(file).toString().replace('\\', '/'))
+                    .map(file -> file.substring(0, file.length() - ".class".length()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (String name : names) {
+            originals.put(name, Files.readAllBytes(CLASSES.resolve(name + ".class")));
+        }
+
+        for (int copy = 0; copy < copies; copy++) {
+            Remapper remapper = new CopyRemapper(originals.keySet(), "copy" + copy + "/");
+            for (String name : names) {
+                ClassReader reader = new ClassReader(originals.get(name));
+                ClassWriter writer = new ClassWriter(0);
+                reader.accept(new ClassRemapper(writer, remapper), 0);
+
+                data.classIndices.put(remapper.map(name), data.classes.size());
+                data.classes.add(writer.toByteArray());
+            }
+        }
+
+        for (String[] target : TARGETS) {
+            Path file = TRANSFORMERS.resolve(target[0] + ".chasm");
+            data.transformers.put(target[0], new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        }
+
+        return data;
+    }
+
+    /**
+     * Returns the number of classes, including all copies.
+     *
+     * @return The number of classes.
+     */
+    public int getClassCount() {
+        return classes.size();
+    }
+
+    /**
+     * Returns the bytes of the class at the given index.
+     *
+     * @param index The index of the class.
+     * @return The bytes of the class, which must not be modified.
+     */
+    public byte[] getClassBytes(int index) {
+        return classes.get(index);
+    }
+
+    /**
+     * Creates a new {@link Context} that knows the classes of this data and of the running JVM.
+     *
+     * @return A new context.
+     */
+    public Context createContext() {
+        Map<String, ClassInfo> classInfos = new HashMap<>();
+        for (byte[] classBytes : classes) {
+            ClassInfo classInfo = ClassInfo.fromBytes(classBytes);
+            classInfos.put(classInfo.getClassName(), classInfo);
+        }
+
+        return new Context() {
+            @Override
+            public @Nullable ClassInfo getClassInfo(String className) {
+                ClassInfo classInfo = classInfos.get(className);
+                if (classInfo != null) {
+                    return classInfo;
+                }
+
+                try {
+                    return ClassInfo.fromClass(Class.forName(className.replace('/', '.'), false,
+                            BenchmarkData.class.getClassLoader()));
+                } catch (ClassNotFoundException e) {
+                    return null;
+                }
+            }
+
+            @Override
+            public byte @Nullable [] readFile(String path) {
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Reads all classes into a list of lazy class nodes, as done by the processor.
+     *
+     * @param context The context used to read the classes.
+     * @return A new list of class nodes.
+     */
+    public ListNode readClasses(Context context) {
+        ListNode list = Ast.emptyList();
+        for (byte[] classBytes : classes) {
+            list.add(new ClassNode(() -> classBytes, context, list.size()));
+        }
+
+        return list;
+    }
+
+    /**
+     * Creates the transformers for all copies, each targeting the class at its index.
+     *
+     * @param context The context given to the transformers.
+     * @return A new list of transformers.
+     */
+    public List<Transformer> createTransformers(Context context) {
+        List<Transformer> result = new ArrayList<>();
+        for (int copy = 0; copy < copies; copy++) {
+            for (String[] target : TARGETS) {
+                int index = classIndices.get("copy" + copy + "/" + target[1]);
+                String source = transformers.get(target[0]).replace("classes[0]", "classes[" + index + "]");
+                Node parsed = Node.parse(source);
+                result.add(new ChasmLangTransformer(target[0] + "_" + copy, parsed, context));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Applies all transformers to the given classes.
+     * All transformers are independent, so they would be applied in a single round.
+     *
+     * @param transformers The transformers to apply.
+     * @param classes The classes to apply the transformers to.
+     * @return The transformations produced by all transformers.
+     */
+    public static List<Transformation> applyTransformers(List<Transformer> transformers, ListNode classes) {
+        List<Transformation> transformations = new ArrayList<>();
+        for (Transformer transformer : transformers) {
+            transformations.addAll(transformer.apply(classes));
+        }
+
+        return transformations;
+    }
+
+    private static class CopyRemapper extends Remapper {
+        private final Set<String> names;
+        private final String prefix;
+
+        CopyRemapper(Set<String> names, String prefix) {
+            this.names = names;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public String map(String internalName) {
+            return names.contains(internalName) ? prefix + internalName : internalName;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.quiltmc.chasm.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.quiltmc.chasm.api.util.Context;
+import org.quiltmc.chasm.internal.tree.ClassNode;
+
+/**
+ * Benchmarks reading classes into {@link ClassNode}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassNodeBenchmark {
+    @Param({"10", "100"})
+    public int copies;
+
+    private BenchmarkData data;
+    private Context context;
+
+    /**
+     * Loads the inputs.
+     *
+     * @throws IOException If the inputs can't be read.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        data = BenchmarkData.load(copies);
+        context = data.createContext();
+    }
+
+    /**
+     * Constructs a class node for every class, which only reads the class header.
+     *
+     * @param blackhole Consumes the class nodes.
+     */
+    @Benchmark
+    public void construct(Blackhole blackhole) {
+        for (int i = 0; i < data.getClassCount(); i++) {
+            byte[] classBytes = data.getClassBytes(i);
+            blackhole.consume(new ClassNode(() -> classBytes, context, i));
+        }
+    }
+
+    /**
+     * Constructs a class node for every class and reads its lazy entries, such as fields and methods.
+     *
+     * @param blackhole Consumes the lazy entries.
+     */
+    @Benchmark
+    public void materialize(Blackhole blackhole) {
+        for (int i = 0; i < data.getClassCount(); i++) {
+            byte[] classBytes = data.getClassBytes(i);
+            blackhole.consume(new ClassNode(() -> classBytes, context, i).getLazyEntries());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.quiltmc.chasm.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.util.Context;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
+/**
+ * Benchmarks {@link ChasmProcessor#process()} from adding the classes to writing the results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProcessorBenchmark {
+    @Param({"10", "100"})
+    public int copies;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private BenchmarkData data;
+    private Context context;
+
+    /**
+     * Loads the inputs.
+     *
+     * @throws IOException If the inputs can't be read.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        data = BenchmarkData.load(copies);
+        context = data.createContext();
+    }
+
+    /**
+     * Processes all classes with all transformers.
+     *
+     * @return The results of processing.
+     */
+    @Benchmark
+    public List<ClassResult> process() {
+        ChasmProcessor processor = new ChasmProcessor(context);
+        if (parallel) {
+            processor.setExecutor(ForkJoinPool.commonPool());
+        }
+
+        for (int i = 0; i < data.getClassCount(); i++) {
+            processor.addClass(data.getClassBytes(i), new Metadata());
+        }
+        for (Transformer transformer : data.createTransformers(processor.getContext())) {
+            processor.addTransformer(transformer);
+        }
+
+        return processor.process();
+    }
+}
@@ -0,0 +1,97 @@
+package org.quiltmc.chasm.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.quiltmc.chasm.api.Transformation;
+import org.quiltmc.chasm.api.util.Context;
+import org.quiltmc.chasm.internal.TransformationApplier;
+import org.quiltmc.chasm.internal.TransformationSorter;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+
+/**
+ * Benchmarks sorting and applying the transformations of a single round.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransformationBenchmark {
+    @Param({"10", "100"})
+    public int copies;
+
+    private BenchmarkData data;
+    private List<Transformation> transformations;
+
+    /**
+     * Loads the inputs and computes the transformations to sort.
+     *
+     * @throws IOException If the inputs can't be read.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        data = BenchmarkData.load(copies);
+        Context context = data.createContext();
+        ListNode classes = data.readClasses(context);
+        transformations = BenchmarkData.applyTransformers(data.createTransformers(context), classes);
+    }
+
+    /**
+     * Sorts the transformations of all transformers.
+     *
+     * @return The sorted transformations.
+     */
+    @Benchmark
+    public List<Transformation> sort() {
+        return TransformationSorter.sort(transformations);
+    }
+
+    /**
+     * Applies the sorted transformations of all transformers.
+     *
+     * @param state Fresh classes and transformations, since applying them modifies the classes.
+     * @return The modified classes.
+     */
+    @Benchmark
+    public ListNode applyAll(ApplyState state) {
+        new TransformationApplier(state.classes, state.sorted).applyAll();
+        return state.classes;
+    }
+
+    /**
+     * Classes and the sorted transformations targeting them, recreated for every invocation.
+     */
+    @State(Scope.Thread)
+    public static class ApplyState {
+        private ListNode classes;
+        private List<Transformation> sorted;
+
+        /**
+         * Reads the classes and computes the transformations.
+         *
+         * @param benchmark The benchmark providing the inputs.
+         */
+        @Setup(Level.Invocation)
+        public void setUp(TransformationBenchmark benchmark) {
+            Context context = benchmark.data.createContext();
+            classes = benchmark.data.readClasses(context);
+            sorted = TransformationSorter.sort(
+                    BenchmarkData.applyTransformers(benchmark.data.createTransformers(context), classes));
+        }
+    }
+}
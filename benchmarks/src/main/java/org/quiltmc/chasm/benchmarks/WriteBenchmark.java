@@ -0,0 +1,104 @@
+package org.quiltmc.chasm.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.ClassWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.quiltmc.chasm.api.util.Context;
+import org.quiltmc.chasm.internal.ClassHierarchy;
+import org.quiltmc.chasm.internal.asm.ChasmClassWriter;
+import org.quiltmc.chasm.internal.metadata.ChangeMetadata;
+import org.quiltmc.chasm.internal.tree.ClassNode;
+import org.quiltmc.chasm.internal.tree.reader.ClassNodeReader;
+import org.quiltmc.chasm.lang.api.ast.MapNode;
+
+/**
+ * Benchmarks writing class nodes using a {@link ClassNodeReader} and a {@link ChasmClassWriter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBenchmark {
+    @Param({"10", "100"})
+    public int copies;
+
+    private ClassHierarchy hierarchy;
+    private final List<MapNode> untracked = new ArrayList<>();
+    private final List<MapNode> tracked = new ArrayList<>();
+
+    /**
+     * Reads all classes, once without and once with change tracking.
+     *
+     * @throws IOException If the inputs can't be read.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkData data = BenchmarkData.load(copies);
+        Context context = data.createContext();
+        hierarchy = new ClassHierarchy(context);
+
+        for (int i = 0; i < data.getClassCount(); i++) {
+            byte[] classBytes = data.getClassBytes(i);
+            ClassNode classNode = new ClassNode(() -> classBytes, context, i);
+
+            untracked.add(new MapNode(classNode.getLazyEntries()));
+
+            MapNode trackedNode = new MapNode(classNode.getLazyEntries());
+            trackedNode.getMetadata().put(ChangeMetadata.class, new ChangeMetadata(classNode));
+            tracked.add(trackedNode);
+        }
+    }
+
+    /**
+     * Writes every class from scratch, computing all frames.
+     *
+     * @param blackhole Consumes the written classes.
+     */
+    @Benchmark
+    public void regenerate(Blackhole blackhole) {
+        for (MapNode classNode : untracked) {
+            ClassNodeReader reader = new ClassNodeReader(classNode);
+            ClassWriter writer = new ChasmClassWriter(hierarchy);
+            reader.accept(writer);
+            blackhole.consume(writer.toByteArray());
+        }
+    }
+
+    /**
+     * Writes every class the way the processor writes modified classes, reusing unmodified methods and frames.
+     *
+     * @param blackhole Consumes the written classes.
+     */
+    @Benchmark
+    public void reuse(Blackhole blackhole) {
+        for (MapNode classNode : tracked) {
+            ClassNodeReader reader = new ClassNodeReader(classNode);
+            ClassWriter writer;
+            if (reader.reusesFrames()) {
+                writer = new ChasmClassWriter(hierarchy, reader.getCopySource(), 0);
+                reader.accept(writer, () -> new ChasmClassWriter(hierarchy));
+            } else {
+                writer = new ChasmClassWriter(hierarchy);
+                reader.accept(writer);
+            }
+            blackhole.consume(writer.toByteArray());
+        }
+    }
+}
@@ -1,24 +1,46 @@
 package org.quiltmc.chasm.api;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.jetbrains.annotations.NotNull;
-import org.objectweb.asm.ClassReader;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassWriter;
+import org.quiltmc.chasm.api.util.ClassFilter;
+import org.quiltmc.chasm.api.util.ClassStorage;
 import org.quiltmc.chasm.api.util.Context;
 import org.quiltmc.chasm.internal.ChasmContext;
 import org.quiltmc.chasm.internal.ClassData;
+import org.quiltmc.chasm.internal.ClassIndex;
+import org.quiltmc.chasm.internal.ProcessingListeners;
 import org.quiltmc.chasm.internal.TransformationApplier;
 import org.quiltmc.chasm.internal.TransformationSorter;
 import org.quiltmc.chasm.internal.TransformerSorter;
 import org.quiltmc.chasm.internal.asm.ChasmClassWriter;
+import org.quiltmc.chasm.internal.cache.RecordingContext;
+import org.quiltmc.chasm.internal.cache.ResultCache;
+import org.quiltmc.chasm.internal.metadata.ChangeMetadata;
+import org.quiltmc.chasm.internal.metadata.PathMetadata;
 import org.quiltmc.chasm.internal.tree.ClassNode;
 import org.quiltmc.chasm.internal.tree.reader.ClassNodeReader;
 import org.quiltmc.chasm.internal.util.NodeConstants;
 import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.internal.util.OrderedReleaser;
+import org.quiltmc.chasm.internal.util.ParallelUtils;
 import org.quiltmc.chasm.lang.api.ast.Ast;
 import org.quiltmc.chasm.lang.api.ast.ListNode;
 import org.quiltmc.chasm.lang.api.ast.MapNode;
@@ -40,6 +62,22 @@ public class ChasmProcessor {
 
     private final List<ClassData> classes = new ArrayList<>();
 
+    private @Nullable Executor executor;
+
+    private boolean parallelTransformers;
+    private boolean parallelTransformations;
+    private boolean coalesceSlices;
+    private boolean reuseUnmodified = true;
+
+    private @Nullable Path cacheDirectory;
+    private int maxCacheEntries = 16;
+    // Only wraps the context while caching, so uncached lookups don't pay for the recording
+    private @Nullable RecordingContext recordingContext;
+
+    private ClassStorage classStorage = ClassStorage.heap();
+
+    private final ProcessingListeners listeners = new ProcessingListeners();
+
     /**
      * Creates a new {@link ChasmProcessor} that uses the given {@link Context}.
      *
@@ -61,14 +99,161 @@ public class ChasmProcessor {
         transformers.add(transformer);
     }
 
+    /**
+     * Adds a {@link ProcessingListener} that is notified about the phases of {@link #process}.
+     * Listeners are called in the order they were added.
+     *
+     * @param listener The {@code ProcessingListener} to add.
+     */
+    public void addListener(ProcessingListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sets the {@link Executor} used by this {@link ChasmProcessor} to run independent work in parallel,
+     * such as reading the added classes.
+     * If no {@code Executor} is set, all work is done sequentially on the thread calling {@link #process}.
+     *
+     * <p>The result of {@link #process} does not depend on whether an {@code Executor} is used.
+     *
+     * @param executor The {@code Executor} to use, for example a {@link java.util.concurrent.ForkJoinPool},
+     *            or {@code null} to process sequentially.
+     */
+    public void setExecutor(@Nullable Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets whether the {@link Transformer}s of a single round may be applied concurrently.
+     * This only has an effect if an {@link Executor} is set via {@link #setExecutor}.
+     *
+     * <p>Transformers in the same round are independent of each other, but in this mode they must also be
+     * safe to call from multiple threads at once.
+     * They are given a read-only view of the class list and their {@link Transformation}s are merged in
+     * transformer order, so the result is the same as in sequential mode.
+     *
+     * @param parallelTransformers Whether to apply transformers concurrently. Defaults to {@code false}.
+     */
+    public void setParallelTransformers(boolean parallelTransformers) {
+        this.parallelTransformers = parallelTransformers;
+    }
+
+    /**
+     * Sets whether {@link Transformation}s of unrelated classes may be applied concurrently.
+     * This only has an effect if an {@link Executor} is set via {@link #setExecutor}.
+     *
+     * <p>Transformations whose targets and sources share a class are always applied on the same thread and in
+     * their sorted order, so the result is the same as in sequential mode.
+     * In this mode, transformations must be safe to apply from multiple threads at once,
+     * and must not access classes other than through their target and sources.
+     *
+     * @param parallelTransformations Whether to apply transformations concurrently. Defaults to {@code false}.
+     */
+    public void setParallelTransformations(boolean parallelTransformations) {
+        this.parallelTransformations = parallelTransformations;
+    }
+
+    /**
+     * Sets whether replacements of non-overlapping slices of the same list are applied together.
+     *
+     * <p>In this mode, replacing a slice is deferred until another transformation reads or replaces a node in or
+     * above its list, and all deferred replacements of a list are then applied in a single pass.
+     * This avoids shifting the list once per replacement when many transformations insert into the same list,
+     * but a transformation of a slice sees the other entries of the list as they were before the deferred
+     * replacements, so it must only depend on the entries of its slice.
+     *
+     * @param coalesceSlices Whether to coalesce slice replacements. Defaults to {@code false}.
+     */
+    public void setCoalesceSlices(boolean coalesceSlices) {
+        this.coalesceSlices = coalesceSlices;
+    }
+
+    /**
+     * Sets whether classes and methods that no transformation changed keep their original bytes.
+     *
+     * <p>If disabled, every class that a transformation targeted is written from its nodes, even if they are equal
+     * to the original ones, and reported as {@link ClassResult.Type#MODIFIED}.
+     * This is mostly useful to check that reading and writing a class doesn't change it.
+     *
+     * @param reuseUnmodified Whether to reuse the bytes of unmodified classes and methods. Defaults to {@code true}.
+     */
+    public void setReuseUnmodified(boolean reuseUnmodified) {
+        this.reuseUnmodified = reuseUnmodified;
+    }
+
+    /**
+     * Sets the directory used to cache the results of {@link #process}.
+     *
+     * <p>If all added classes and transformers are the same as in a previous run, and the {@link Context} still
+     * gives the same answers to all queries made during that run, the stored results are returned without reading
+     * any class.
+     * Classes are compared by their bytes and the values of their metadata that implement
+     * {@link org.quiltmc.chasm.api.util.CacheableMetadata}.
+     * Caching requires all transformers to support {@link Transformer#getCacheKey}, and transformers that use the
+     * {@code Context} must use the one returned by {@link #getContext} after the cache directory was set,
+     * so their queries can be tracked.
+     *
+     * <p>The directory keeps the results of at most as many runs as set via {@link #setMaxCacheEntries}.
+     * Storing the results of a new run deletes those that were least recently used.
+     *
+     * @param cacheDirectory The directory to store cached results in, or {@code null} to disable caching.
+     */
+    public void setCacheDirectory(@Nullable Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+        this.recordingContext = cacheDirectory == null ? null : new RecordingContext(context);
+    }
+
+    /**
+     * Sets the maximum number of runs whose results are kept in the directory set via {@link #setCacheDirectory}.
+     *
+     * @param maxCacheEntries The maximum number of cached runs. Defaults to {@code 16}.
+     */
+    public void setMaxCacheEntries(int maxCacheEntries) {
+        if (maxCacheEntries < 1) {
+            throw new IllegalArgumentException("At least one cache entry must be kept");
+        }
+
+        this.maxCacheEntries = maxCacheEntries;
+    }
+
+    /**
+     * Sets the {@link ClassStorage} that holds the bytes of classes added via {@link #addClass(byte[], Metadata)}
+     * afterwards. Defaults to {@link ClassStorage#heap}.
+     *
+     * <p>The storage is not closed by this {@link ChasmProcessor}, but must stay open until {@link #process} returned.
+     *
+     * @param classStorage The storage to use for classes added after this call.
+     */
+    public void setClassStorage(ClassStorage classStorage) {
+        this.classStorage = classStorage;
+    }
+
     /**
      * Adds the passed class data to this {@link ChasmProcessor}'s
      * list of classes to transform.
+     * The bytes are kept in the {@link ClassStorage} set via {@link #setClassStorage} and must not be modified.
      *
      * @param classBytes The bytes of the class.
      * @param metadata The metadata associated with the class.
      */
     public void addClass(byte @NotNull [] classBytes, @NotNull Metadata metadata) {
+        this.classes.add(new ClassData(classStorage.store(classBytes), metadata));
+    }
+
+    /**
+     * Adds a class to this {@link ChasmProcessor}'s list of classes to transform,
+     * whose bytes are only loaded once they are needed during {@link #process}.
+     *
+     * <p>The original bytes are never held in memory for long. Instead, the supplier is called whenever they are
+     * needed: when the class is read or its cache key is computed, whenever parts of the class that were dropped
+     * under memory pressure are read again, when unmodified methods are copied, and when the class turns out to
+     * be unmodified. It may therefore be called any number of times, also concurrently from the threads of the
+     * {@link Executor} set via {@link #setExecutor}, so it should be cheap and must be repeatable.
+     *
+     * @param classBytes A supplier of the bytes of the class, which must return the same bytes on every call.
+     * @param metadata The metadata associated with the class.
+     */
+    public void addClass(@NotNull Supplier<byte @NotNull []> classBytes, @NotNull Metadata metadata) {
         this.classes.add(new ClassData(classBytes, metadata));
     }
 
@@ -79,87 +264,410 @@ public class ChasmProcessor {
      * @return The transformed {@link ClassData}, wrapped in {@link ClassResult}.
      */
     public List<ClassResult> process() {
+        SortedMap<Integer, ClassResult> results = new TreeMap<>();
+        List<ClassResult> removed = new ArrayList<>();
+        process((result, index, source) -> {
+            if (index < 0) {
+                removed.add(result);
+            } else {
+                results.put(index, result);
+            }
+        });
+
+        List<ClassResult> result = new ArrayList<>(results.values());
+        result.addAll(removed);
+        return result;
+    }
+
+    /**
+     * Transforms the {@link ClassData} passed via {@link #addClass} using
+     * the {@link Transformer Transformers} passed via {@link #addTransformer},
+     * passing every {@link ClassResult} to the given consumer as soon as it is available.
+     *
+     * <p>Unmodified classes are passed on as soon as no transformer can modify them anymore: after the transformers
+     * of a round were applied, if none of its transformations targets them and no transformer of a later round
+     * selects them through its {@link Transformer#getClassFilter() class filter}.
+     * While a later transformer has no class filter, classes are held back until the last round.
+     * The remaining classes are written in a fixed order, and each is passed on as soon as it and the
+     * classes before it are written.
+     * The consumer is never called concurrently, but may be called from the threads of the {@link Executor}
+     * set via {@link #setExecutor}. Other classes keep being written while it runs.
+     * The order of the results is deterministic, but differs from the order returned by {@link #process()}.
+     *
+     * @param consumer A {@code Consumer} receiving the transformed {@link ClassData}, wrapped in
+     *            {@link ClassResult}.
+     */
+    public void process(Consumer<ClassResult> consumer) {
+        process((result, index, source) -> consumer.accept(result));
+    }
+
+    private void process(ResultConsumer consumer) {
+        RecordingContext context = this.recordingContext;
+        if (cacheDirectory == null || context == null) {
+            processUncached(consumer);
+            return;
+        }
+
+        ResultCache cache = new ResultCache(cacheDirectory, context.getParent(), maxCacheEntries);
+        byte[] key = ResultCache.computeKey(classes, transformers, coalesceSlices, reuseUnmodified);
+        if (key == null) {
+            LOGGER.info("Not using the cache, since not all transformers support caching");
+            processUncached(consumer);
+            return;
+        }
+
+        List<ResultCache.CachedResult> cached = null;
+        try {
+            cached = cache.load(key);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Failed to load cached results", e);
+        }
+
+        if (cached != null) {
+            LOGGER.info("Using {} cached results", cached.size());
+            for (ResultCache.CachedResult result : cached) {
+                consumer.accept(toClassResult(result), result.getIndex(), result.getSource());
+            }
+            return;
+        }
+
+        List<ResultCache.CachedResult> results = new ArrayList<>();
+        RecordingContext.Recording recording;
+        context.startRecording();
+        try {
+            processUncached((result, index, source) -> {
+                ClassResult.Type type = result.getType();
+                boolean written = type == ClassResult.Type.MODIFIED || type == ClassResult.Type.ADDED;
+                byte[] classBytes = written ? result.getClassBytes() : null;
+                results.add(new ResultCache.CachedResult(type, index, source, classBytes));
+                consumer.accept(result, index, source);
+            });
+        } finally {
+            recording = context.stopRecording();
+        }
+
+        try {
+            cache.store(key, recording, results);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to store results in cache", e);
+        }
+    }
+
+    private ClassResult toClassResult(ResultCache.CachedResult result) {
+        if (result.getType() == ClassResult.Type.UNMODIFIED) {
+            ClassData classData = classes.get(result.getSource());
+            return new ClassResult(classData.getClassBytes(), classData.getMetadata(), result.getType());
+        }
+
+        if (result.getType() == ClassResult.Type.REMOVED) {
+            return new ClassResult(null, classes.get(result.getSource()).getMetadata(), result.getType());
+        }
+
+        byte[] classBytes = result.getClassBytes();
+        Assert.check(classBytes != null);
+        return toClassResult(classBytes, result.getSource());
+    }
+
+    /**
+     * Creates the result of a written class, which has the metadata of its input class if it has one.
+     * The metadata of the class node isn't passed on, so cached and uncached results are the same.
+     */
+    private ClassResult toClassResult(byte[] classBytes, int source) {
+        if (source < 0) {
+            return new ClassResult(classBytes, new Metadata(), ClassResult.Type.ADDED);
+        }
+
+        return new ClassResult(classBytes, classes.get(source).getMetadata(), ClassResult.Type.MODIFIED);
+    }
+
+    private void processUncached(ResultConsumer consumer) {
         LOGGER.info("Processing {} classes...", classes.size());
 
+        long ingestStart = System.nanoTime();
         ListNode classes = Ast.emptyList();
-        Context context = new ChasmContext(this.context, classes);
-        Map<String, ClassData> nameToData = new HashMap<>();
-        for (ClassData classData : this.classes) {
-            ClassReader classReader = new ClassReader(classData.getClassBytes());
-            ClassNode classNode = new ClassNode(classReader, context, classes.size());
-            classNode.getMetadata().putAll(classData.getMetadata());
+        ChasmContext context = new ChasmContext(getContext(), classes);
+        Map<String, Integer> nameToSource = new HashMap<>();
+        ClassNode[] classNodes = readClasses(context);
+        for (int i = 0; i < classNodes.length; i++) {
+            ClassNode classNode = classNodes[i];
             classes.add(classNode);
 
-            if (nameToData.putIfAbsent(classReader.getClassName(), classData) != null) {
-                throw new RuntimeException("Duplicate class: " + classReader.getClassName());
+            String name = NodeUtils.getAsString(classNode, NodeConstants.NAME);
+            if (nameToSource.putIfAbsent(name, i) != null) {
+                throw new RuntimeException("Duplicate class: " + name);
             }
         }
+        context.refresh();
+        listeners.onIngest(classNodes.length, System.nanoTime() - ingestStart);
 
         LOGGER.info("Sorting {} transformers...", transformers.size());
         List<List<Transformer>> rounds = TransformerSorter.sort(transformers);
 
+        Set<Integer> emitted = new HashSet<>();
+        if (rounds.isEmpty()) {
+            emitUnmodified(classes, Collections.emptyList(), Collections.emptyList(), nameToSource, emitted, consumer);
+        }
+
+        // The class filters of all transformers after each round, or null if one of them may target any class.
+        // Classes are only passed on early if all later transformers are filtered. Those only see the classes they
+        // select, so they can't add, remove or reorder classes, and the indices of classes passed on stay valid
+        List<List<ClassFilter>> laterFilters = new ArrayList<>(Collections.nCopies(rounds.size(), null));
+        List<ClassFilter> filters = new ArrayList<>();
+        for (int i = rounds.size() - 1; i >= 0 && filters != null; i--) {
+            laterFilters.set(i, new ArrayList<>(filters));
+            for (Transformer transformer : rounds.get(i)) {
+                ClassFilter filter = transformer.getClassFilter();
+                if (filter == null) {
+                    filters = null;
+                    break;
+                }
+                filters.add(filter);
+            }
+        }
+
         LOGGER.info("Applying transformers in {} rounds:", rounds.size());
-        for (List<Transformer> round : rounds) {
+        for (int i = 0; i < rounds.size(); i++) {
+            List<Transformer> round = rounds.get(i);
             LOGGER.info("Applying {} transformers...", round.size());
-            List<Transformation> transformations = applyTransformers(round, classes);
+            List<Transformation> transformations = applyTransformers(i, round, classes);
+
+            if (laterFilters.get(i) != null) {
+                // Classes that are unmodified and aren't targeted now or selected by a later transformer are final
+                emitUnmodified(classes, transformations, laterFilters.get(i), nameToSource, emitted, consumer);
+            }
 
             LOGGER.info("Sorting {} transformations...", transformations.size());
+            long sortStart = System.nanoTime();
             List<Transformation> sorted = TransformationSorter.sort(transformations);
+            listeners.onTransformationsSorted(i, transformations.size(), System.nanoTime() - sortStart);
 
             LOGGER.info("Applying transformations...");
+            final long applyStart = System.nanoTime();
             TransformationApplier transformationApplier = new TransformationApplier(classes, sorted);
-            transformationApplier.applyAll();
+            transformationApplier.setCoalesceSlices(coalesceSlices);
+            transformationApplier.setReuseUnmodified(reuseUnmodified);
+            transformationApplier.setContext(context);
+            transformationApplier.applyAll(parallelTransformations ? executor : null);
+            context.refresh();
+            listeners.onTransformationsApplied(i, sorted.size(), transformationApplier.getMaterializedClasses(),
+                    System.nanoTime() - applyStart);
         }
 
-        LOGGER.info("Writing {} classes...", classes.size());
-        List<ClassResult> result = new ArrayList<>();
-        for (Node node : classes.getEntries()) {
-            MapNode classNode = NodeUtils.asMap(node);
+        LOGGER.info("Writing {} classes...", classes.size() - emitted.size());
+        List<Node> nodes = classes.getEntries();
+        int[] sources = new int[nodes.size()];
+        List<Integer> toWrite = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            if (emitted.contains(i)) {
+                continue;
+            }
+
+            Node node = nodes.get(i);
             String name = NodeUtils.getAsString(node, NodeConstants.NAME);
-            ClassData classData = nameToData.remove(name);
+            Integer source = nameToSource.remove(name);
 
-            // Unmodified classes
-            if (node instanceof ClassNode) {
+            if (ChangeMetadata.isUnmodified(node)) {
                 // Unmodified class
-                Assert.check(classData != null);
-                result.add(new ClassResult(
+                Assert.check(source != null);
+                ClassData classData = this.classes.get(source);
+                consumer.accept(new ClassResult(
                         classData.getClassBytes(),
                         classData.getMetadata(),
                         ClassResult.Type.UNMODIFIED
-                ));
+                ), i, source);
             } else {
-                // Modified or added class
-                ClassNodeReader chasmWriter = new ClassNodeReader(classNode);
-                ClassWriter classWriter = new ChasmClassWriter(context);
-                chasmWriter.accept(classWriter);
-                result.add(new ClassResult(
-                        classWriter.toByteArray(),
-                        classNode.getMetadata(),
-                        classData == null ? ClassResult.Type.ADDED : ClassResult.Type.MODIFIED
-                ));
+                // Modified or added class, written below
+                sources[i] = source == null ? -1 : source;
+                toWrite.add(i);
             }
         }
 
-        for (Map.Entry<String, ClassData> entry : nameToData.entrySet()) {
-            result.add(new ClassResult(null, entry.getValue().getMetadata(), ClassResult.Type.REMOVED));
+        writeClasses(context, nodes, sources, toWrite, consumer);
+
+        for (int source : nameToSource.values()) {
+            ClassData classData = this.classes.get(source);
+            consumer.accept(new ClassResult(null, classData.getMetadata(), ClassResult.Type.REMOVED), -1, source);
         }
 
         LOGGER.info("Processing done!");
-        return result;
     }
 
-    private List<Transformation> applyTransformers(List<Transformer> transformers, ListNode classes) {
+    private ClassNode[] readClasses(Context context) {
+        // Each class gets the index of its ClassData, so the result is the same regardless of scheduling
+        ClassNode[] classNodes = new ClassNode[this.classes.size()];
+        ParallelUtils.forEach(executor, classNodes.length, index -> {
+            ClassData classData = this.classes.get(index);
+            ClassNode classNode = new ClassNode(classData::getClassBytes, context, index);
+            classNode.getMetadata().putAll(classData.getMetadata());
+            classNodes[index] = classNode;
+        });
+
+        return classNodes;
+    }
+
+    private void emitUnmodified(ListNode classes, List<Transformation> transformations, List<ClassFilter> laterFilters,
+                                Map<String, Integer> nameToSource, Set<Integer> emitted,
+                                ResultConsumer consumer) {
+        Set<Integer> targeted = new HashSet<>();
+        for (Transformation transformation : transformations) {
+            PathMetadata path = transformation.getTarget().getTarget().getMetadata().get(PathMetadata.class);
+            if (path == null) {
+                // Can't tell which class is affected, so hold back all of them
+                return;
+            }
+            targeted.add(path.getEntry(0).asInteger());
+        }
+
+        List<Node> nodes = classes.getEntries();
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            if (emitted.contains(i) || !ChangeMetadata.isUnmodified(node) || targeted.contains(i)) {
+                continue;
+            }
+
+            String name = NodeUtils.getAsString(node, NodeConstants.NAME);
+            if (laterFilters.stream().anyMatch(filter -> filter.matches(name))) {
+                continue;
+            }
+
+            Integer source = nameToSource.remove(name);
+            Assert.check(source != null);
+            ClassData classData = this.classes.get(source);
+            consumer.accept(new ClassResult(
+                    classData.getClassBytes(),
+                    classData.getMetadata(),
+                    ClassResult.Type.UNMODIFIED
+            ), i, source);
+            emitted.add(i);
+        }
+    }
+
+    private void writeClasses(ChasmContext context, List<Node> nodes, int[] sources, List<Integer> toWrite,
+                              ResultConsumer consumer) {
+        // Write the most expensive classes first, so a single large class doesn't end up running alone at the end
+        long[] costs = new long[nodes.size()];
+        for (int index : toWrite) {
+            costs[index] = estimateWriteCost(NodeUtils.asMap(nodes.get(index)));
+        }
+        toWrite.sort(Comparator.comparingLong((Integer index) -> costs[index]).reversed());
+
+        // Results are passed on in scheduling order, which keeps the output order deterministic.
+        // Listeners and the consumer are called outside of any lock, so other threads keep writing meanwhile
+        String[] names = new String[toWrite.size()];
+        long[] times = new long[toWrite.size()];
+        OrderedReleaser<ClassResult> releaser = new OrderedReleaser<>(toWrite.size(), (result, i) -> {
+            listeners.onClassWritten(names[i], times[i]);
+            int index = toWrite.get(i);
+            consumer.accept(result, index, sources[index]);
+        });
+        ParallelUtils.forEach(executor, toWrite.size(), i -> {
+            long start = System.nanoTime();
+            int index = toWrite.get(i);
+            MapNode classNode = NodeUtils.asMap(nodes.get(index));
+            ClassNodeReader chasmWriter = new ClassNodeReader(classNode);
+            ClassWriter classWriter;
+            if (chasmWriter.reusesFrames()) {
+                // Only compute frames of methods that need them
+                classWriter = new ChasmClassWriter(context.getHierarchy(), chasmWriter.getCopySource(), 0);
+                chasmWriter.accept(classWriter, () -> new ChasmClassWriter(context.getHierarchy()));
+            } else {
+                classWriter = new ChasmClassWriter(context.getHierarchy());
+                chasmWriter.accept(classWriter);
+            }
+            // The change tracking holds on to the source class and its original nodes, which aren't needed anymore
+            classNode.getMetadata().put(ChangeMetadata.class, null);
+            ClassResult result = toClassResult(classWriter.toByteArray(), sources[index]);
+            names[i] = NodeUtils.getAsString(classNode, NodeConstants.NAME);
+            times[i] = System.nanoTime() - start;
+
+            releaser.complete(i, result);
+        });
+    }
+
+    private static long estimateWriteCost(MapNode classNode) {
+        Node methods = classNode.get(NodeConstants.METHODS);
+        if (!(methods instanceof ListNode)) {
+            return 0;
+        }
+
+        // Frame computation scales with the number of instructions, every method adds a fixed overhead
+        ChangeMetadata changes = classNode.getMetadata().get(ChangeMetadata.class);
+        long cost = 0;
+        for (Node method : ((ListNode) methods).getEntries()) {
+            cost += 1;
+            if (changes != null && changes.getOriginalMethodIndex(method) >= 0) {
+                // Most likely copied as is
+                continue;
+            }
+
+            Node code = NodeUtils.asMap(method).get(NodeConstants.CODE);
+            if (code instanceof MapNode) {
+                Node instructions = ((MapNode) code).get(NodeConstants.INSTRUCTIONS);
+                if (instructions instanceof ListNode) {
+                    cost += ((ListNode) instructions).size();
+                }
+            }
+        }
+
+        return cost;
+    }
+
+    private List<Transformation> applyTransformers(int round, List<Transformer> transformers, ListNode classes) {
         List<Transformation> transformations = new ArrayList<>();
 
-        for (Transformer transformer : transformers) {
+        // Transformers with a filter only get the classes they can transform, selected through an index
+        ClassIndex index = null;
+        ListNode[] inputs = new ListNode[transformers.size()];
+        for (int i = 0; i < transformers.size(); i++) {
+            ClassFilter filter = transformers.get(i).getClassFilter();
+            if (filter != null) {
+                if (index == null) {
+                    index = new ClassIndex(classes);
+                }
+                inputs[i] = index.select(filter);
+            }
+        }
+
+        if (parallelTransformers && executor != null) {
+            ListNode view = new ListNode(Collections.unmodifiableList(classes.getEntries()));
+            List<Collection<Transformation>> results = new ArrayList<>(Collections.nCopies(transformers.size(), null));
+            long[] nanos = new long[transformers.size()];
+            ParallelUtils.forEach(executor, transformers.size(), i -> {
+                long start = System.nanoTime();
+                results.set(i, transformers.get(i).apply(inputs[i] == null ? view : inputs[i]));
+                nanos[i] = System.nanoTime() - start;
+            });
+
+            for (int i = 0; i < transformers.size(); i++) {
+                Collection<Transformation> result = results.get(i);
+                listeners.onTransformerApplied(round, transformers.get(i).getId(), result.size(), nanos[i]);
+                transformations.addAll(result);
+            }
+
+            return transformations;
+        }
+
+        for (int i = 0; i < transformers.size(); i++) {
+            Transformer transformer = transformers.get(i);
+            long start = System.nanoTime();
             // TODO: Replace copy with immutability
-            transformations.addAll(transformer.apply(classes));
+            Collection<Transformation> result = transformer.apply(inputs[i] == null ? classes : inputs[i]);
+            listeners.onTransformerApplied(round, transformer.getId(), result.size(), System.nanoTime() - start);
+            transformations.addAll(result);
         }
 
         return transformations;
     }
 
     public Context getContext() {
-        return context;
+        return recordingContext == null ? context : recordingContext;
+    }
+
+    private interface ResultConsumer {
+        /**
+         * Accepts a result, along with its index in the class list and the index of its input class.
+         * Removed classes have no index, and added classes have no input class, both are passed as -1.
+         */
+        void accept(ClassResult result, int index, int source);
     }
 }
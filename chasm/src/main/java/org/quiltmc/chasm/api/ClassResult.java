@@ -42,6 +42,9 @@ public class ClassResult {
     /**
      * Get the {@link Metadata} associated with the class of this result.
      *
+     * <p>Results of {@link org.quiltmc.chasm.api.ChasmProcessor} have the metadata that was passed along with
+     * their input class, whether they were cached or not. Added classes have no input class and get empty metadata.
+     *
      * @return The {@link Metadata} of the class.
      */
     public @NotNull Metadata getMetadata() {
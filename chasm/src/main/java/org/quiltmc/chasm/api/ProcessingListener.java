@@ -0,0 +1,68 @@
+package org.quiltmc.chasm.api;
+
+/**
+ * Receives timings and counters of the phases of {@link ChasmProcessor#process}.
+ * Register listeners via {@link ChasmProcessor#addListener}.
+ *
+ * <p>All durations are in nanoseconds, as measured by {@link System#nanoTime}.
+ * Rounds are numbered from {@code 0} in the order they are applied.
+ * Methods are never called concurrently, but may be called from the threads of the
+ * {@link java.util.concurrent.Executor} set via {@link ChasmProcessor#setExecutor}.
+ *
+ * <p>If {@link ChasmProcessor#process} uses cached results, no phase is run and no method is called.
+ * All methods do nothing by default.
+ */
+public interface ProcessingListener {
+    /**
+     * Called after the added classes were read and indexed.
+     *
+     * @param classCount The number of added classes.
+     * @param nanos The time spent reading and indexing the classes.
+     */
+    default void onIngest(int classCount, long nanos) {
+    }
+
+    /**
+     * Called once for every {@link Transformer} after it was applied.
+     * The transformers of a round are reported in their order, even if they were applied concurrently.
+     *
+     * @param round The round the transformer belongs to.
+     * @param transformerId The {@link Transformer#getId() ID} of the transformer.
+     * @param transformationCount The number of {@link Transformation}s produced by the transformer.
+     * @param nanos The time spent in {@link Transformer#apply}.
+     */
+    default void onTransformerApplied(int round, String transformerId, int transformationCount, long nanos) {
+    }
+
+    /**
+     * Called after the {@link Transformation}s of a round were sorted.
+     *
+     * @param round The sorted round.
+     * @param transformationCount The number of transformations produced in the round.
+     * @param nanos The time spent sorting the transformations.
+     */
+    default void onTransformationsSorted(int round, int transformationCount, long nanos) {
+    }
+
+    /**
+     * Called after the {@link Transformation}s of a round were applied.
+     *
+     * @param round The applied round.
+     * @param transformationCount The number of applied transformations.
+     * @param materializedClasses The number of unmodified classes that were made modifiable in the round,
+     *            because a transformation targets them.
+     * @param nanos The time spent applying the transformations.
+     */
+    default void onTransformationsApplied(int round, int transformationCount, int materializedClasses, long nanos) {
+    }
+
+    /**
+     * Called after a modified or added class was written.
+     * Classes are reported in the order their results are passed on, right before their result.
+     *
+     * @param className The internal name of the written class.
+     * @param nanos The time spent writing the class.
+     */
+    default void onClassWritten(String className, long nanos) {
+    }
+}
@@ -4,6 +4,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.chasm.api.util.ClassFilter;
 import org.quiltmc.chasm.lang.api.ast.ListNode;
 
 /**
@@ -34,6 +36,34 @@ public interface Transformer {
      */
     String getId();
 
+    /**
+     * Gets a key identifying the behavior of this {@link Transformer}, used to cache the results of processing.
+     * Two transformers with the same ID and cache key must produce the same {@link Transformation}s
+     * for the same classes and the same answers of the {@link org.quiltmc.chasm.api.util.Context}.
+     *
+     * <p>By default, transformers don't support caching.
+     *
+     * @return A key identifying the behavior of this transformer, e.g. its source code,
+     *     or {@code null} if its results can't be cached.
+     */
+    default @Nullable String getCacheKey() {
+        return null;
+    }
+
+    /**
+     * Gets the classes this {@link Transformer} may target.
+     * If a filter is returned, {@link #apply} is only given the matching classes, in their usual order.
+     * This avoids evaluating the transformer against, and reading, classes it can't transform anyway.
+     *
+     * <p>The filter must not change between calls, and must be covered by the {@link #getCacheKey() cache key}.
+     * By default, transformers are given all classes.
+     *
+     * @return The classes this transformer may target, or {@code null} to receive all classes.
+     */
+    default @Nullable ClassFilter getClassFilter() {
+        return null;
+    }
+
     /**
      * Defines explicit dependencies between the {@link Transformation}s of {@link Transformer}s.
      * All Transformations defined by this Transformer *must run after* all Transformations
@@ -0,0 +1,19 @@
+package org.quiltmc.chasm.api.util;
+
+/**
+ * Metadata of an input class that transformers may depend on.
+ *
+ * <p>Transformers can read the metadata passed to {@link org.quiltmc.chasm.api.ChasmProcessor#addClass}
+ * from the nodes of the classes. Values that implement this interface are part of the key of cached results,
+ * so results are only reused if they are the same. Other values are not hashed, and must not influence
+ * transformers if a cache directory is set.
+ */
+public interface CacheableMetadata {
+    /**
+     * Gets a key identifying this value, used to cache the results of processing.
+     * Two values of the same type with the same key must be treated the same by all transformers.
+     *
+     * @return A key identifying this value.
+     */
+    String getCacheKey();
+}
@@ -0,0 +1,158 @@
+package org.quiltmc.chasm.api.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link Context} that caches the answers of another context, including {@code null} answers.
+ *
+ * <p>Since the methods of a context must be pure, the answers of the parent can be reused for as long as this
+ * context exists. The number of cached class infos and files is bounded. Large caches are split by key into
+ * independently locked stripes, each holding an equal share of the bound. Eviction is per stripe, not global:
+ * once a stripe is full, its least recently used entry is evicted, even if other stripes have room or hold entries
+ * that were used less recently.
+ *
+ * <p>This class is thread-safe if the parent context is.
+ */
+public class CachingContext implements Context {
+    /**
+     * The default maximum number of cached class infos.
+     */
+    public static final int DEFAULT_MAX_CLASS_INFOS = 8192;
+
+    /**
+     * The default maximum number of cached files.
+     */
+    public static final int DEFAULT_MAX_FILES = 256;
+
+    private static final Object ABSENT = new Object();
+    private static final int MAX_STRIPES = 16;
+    private static final int MIN_STRIPE_SIZE = 64;
+
+    private final Context parent;
+    private final StripedCache classInfos;
+    private final StripedCache files;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a caching context with the default bounds.
+     *
+     * @param parent The context to cache the answers of.
+     */
+    public CachingContext(Context parent) {
+        this(parent, DEFAULT_MAX_CLASS_INFOS, DEFAULT_MAX_FILES);
+    }
+
+    /**
+     * Creates a caching context.
+     *
+     * @param parent The context to cache the answers of.
+     * @param maxClassInfos The maximum number of cached class infos, including {@code null} answers.
+     * @param maxFiles The maximum number of cached files, including {@code null} answers.
+     */
+    public CachingContext(Context parent, int maxClassInfos, int maxFiles) {
+        if (maxClassInfos < 1 || maxFiles < 1) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+
+        this.parent = parent;
+        this.classInfos = new StripedCache(maxClassInfos);
+        this.files = new StripedCache(maxFiles);
+    }
+
+    @Override
+    public @Nullable ClassInfo getClassInfo(String className) {
+        return (ClassInfo) classInfos.get(className, parent::getClassInfo);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Every call returns a new copy of the cached contents.
+     */
+    @Override
+    public byte @Nullable [] readFile(String path) {
+        byte[] bytes = (byte[]) files.get(path, parent::readFile);
+        return bytes == null ? null : bytes.clone();
+    }
+
+    /**
+     * Returns the number of queries that were answered from the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of queries that were passed on to the parent context.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private class StripedCache {
+        private final Stripe[] stripes;
+
+        StripedCache(int maxSize) {
+            int stripeCount = Math.max(1, Math.min(MAX_STRIPES, maxSize / MIN_STRIPE_SIZE));
+            int stripeSize = (maxSize + stripeCount - 1) / stripeCount;
+
+            stripes = new Stripe[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new Stripe(stripeSize);
+            }
+        }
+
+        @Nullable Object get(String key, Function<String, @Nullable Object> loader) {
+            Stripe stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+
+            Object value;
+            synchronized (stripe) {
+                value = stripe.get(key);
+            }
+
+            if (value != null) {
+                hits.increment();
+                return value == ABSENT ? null : value;
+            }
+
+            // Load outside the lock, concurrent loads of the same key yield the same answer anyway
+            misses.increment();
+            Object loaded = loader.apply(key);
+            synchronized (stripe) {
+                stripe.put(key, loaded == null ? ABSENT : loaded);
+            }
+
+            return loaded;
+        }
+    }
+
+    /**
+     * A part of the cache evicting its least recently used entries, guarded by its own lock.
+     */
+    private static class Stripe extends LinkedHashMap<String, Object> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        Stripe(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.quiltmc.chasm.api.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Selects classes by their name or package, so transformers are only given the classes they can transform.
+ *
+ * <p>All names are internal names (See {@link org.objectweb.asm.Type#getInternalName}),
+ * although {@code .} is accepted as a separator as well.
+ * A package includes all of its subpackages.
+ */
+public class ClassFilter {
+    private final Set<String> classes;
+    private final Set<String> packages;
+
+    private ClassFilter(Collection<String> classes, Collection<String> packages) {
+        this.classes = normalize(classes);
+        this.packages = normalize(packages);
+    }
+
+    /**
+     * Creates a filter that selects the given classes and all classes in the given packages.
+     *
+     * @param classes The names of the selected classes.
+     * @param packages The names of the selected packages, for example {@code org/example}.
+     * @return A new filter.
+     */
+    public static ClassFilter of(Collection<String> classes, Collection<String> packages) {
+        return new ClassFilter(classes, packages);
+    }
+
+    /**
+     * Creates a filter that selects the given classes.
+     *
+     * @param classes The names of the selected classes.
+     * @return A new filter.
+     */
+    public static ClassFilter classes(String... classes) {
+        return new ClassFilter(Arrays.asList(classes), Collections.emptyList());
+    }
+
+    /**
+     * Creates a filter that selects all classes in the given packages.
+     *
+     * @param packages The names of the selected packages, for example {@code org/example}.
+     * @return A new filter.
+     */
+    public static ClassFilter packages(String... packages) {
+        return new ClassFilter(Collections.emptyList(), Arrays.asList(packages));
+    }
+
+    /**
+     * Returns the names of the classes selected by this filter.
+     *
+     * @return The internal names of the selected classes.
+     */
+    public Set<String> getClasses() {
+        return classes;
+    }
+
+    /**
+     * Returns the names of the packages selected by this filter, without trailing separator.
+     *
+     * @return The internal names of the selected packages.
+     */
+    public Set<String> getPackages() {
+        return packages;
+    }
+
+    /**
+     * Checks whether the given class is selected by this filter.
+     *
+     * @param className The internal name of the class.
+     * @return Whether the class or one of its packages is selected.
+     */
+    public boolean matches(String className) {
+        if (classes.contains(className)) {
+            return true;
+        }
+
+        int end = className.lastIndexOf('/');
+        if (end < 0) {
+            return packages.contains("");
+        }
+
+        for (; end > 0; end = className.lastIndexOf('/', end - 1)) {
+            if (packages.contains(className.substring(0, end))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static Set<String> normalize(Collection<String> names) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String name : names) {
+            String internalName = name.replace('.', '/');
+            while (internalName.endsWith("/")) {
+                internalName = internalName.substring(0, internalName.length() - 1);
+            }
+            normalized.add(internalName);
+        }
+
+        return Collections.unmodifiableSet(normalized);
+    }
+
+    @Override
+    public String toString() {
+        return "ClassFilter{classes=" + classes + ", packages=" + packages + "}";
+    }
+}
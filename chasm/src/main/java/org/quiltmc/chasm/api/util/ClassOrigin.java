@@ -0,0 +1,46 @@
+package org.quiltmc.chasm.api.util;
+
+import java.nio.file.Path;
+
+/**
+ * Metadata describing where an input class was loaded from,
+ * so results can be written back to the same place.
+ */
+public class ClassOrigin {
+    private final Path classpathEntry;
+    private final String entryPath;
+
+    /**
+     * Creates a new {@link ClassOrigin}.
+     *
+     * @param classpathEntry The jar file or directory containing the class (see {@link #getClasspathEntry()}).
+     * @param entryPath The path of the class file inside the classpath entry (see {@link #getEntryPath()}).
+     */
+    public ClassOrigin(Path classpathEntry, String entryPath) {
+        this.classpathEntry = classpathEntry;
+        this.entryPath = entryPath;
+    }
+
+    /**
+     * Returns the jar file or directory that contains the class.
+     *
+     * @return The classpath entry of the class.
+     */
+    public Path getClasspathEntry() {
+        return classpathEntry;
+    }
+
+    /**
+     * Returns the path of the class file relative to its classpath entry, using {@code /} as separator.
+     *
+     * @return The path of the class file, for example {@code org/example/Example.class}.
+     */
+    public String getEntryPath() {
+        return entryPath;
+    }
+
+    @Override
+    public String toString() {
+        return classpathEntry + "!/" + entryPath;
+    }
+}
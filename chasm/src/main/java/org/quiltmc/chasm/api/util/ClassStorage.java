@@ -0,0 +1,68 @@
+package org.quiltmc.chasm.api.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+import org.quiltmc.chasm.internal.storage.DeflateClassStorage;
+import org.quiltmc.chasm.internal.storage.HeapClassStorage;
+import org.quiltmc.chasm.internal.storage.MappedClassStorage;
+
+/**
+ * Holds the bytes of input classes while they are being processed.
+ *
+ * <p>The bytes of a class are needed when it is first read, when a transformer accesses more than its name and
+ * supertypes, when it is written, and when it is returned unmodified.
+ * In between, a storage may keep them in a more compact form or outside of the heap.
+ *
+ * <p>All methods in this class must be thread-safe, as they may be called concurrently.
+ */
+public interface ClassStorage extends Closeable {
+    /**
+     * Stores the bytes of a class.
+     *
+     * @param classBytes The bytes to store, which must not be modified afterwards.
+     * @return A supplier that returns the stored bytes on every call.
+     *     The returned arrays must not be modified, as they may be shared.
+     */
+    Supplier<byte[]> store(byte[] classBytes);
+
+    /**
+     * Releases the resources held by this storage.
+     * Suppliers returned by this storage must not be used afterwards.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * Returns a storage that keeps the passed arrays on the heap, as they are.
+     *
+     * @return The storage.
+     */
+    static ClassStorage heap() {
+        return HeapClassStorage.INSTANCE;
+    }
+
+    /**
+     * Returns a storage that keeps the bytes of classes compressed on the heap, inflating them on every access.
+     *
+     * @return The storage.
+     */
+    static ClassStorage deflate() {
+        return new DeflateClassStorage();
+    }
+
+    /**
+     * Returns a storage that writes the bytes of classes into a memory-mapped file in the given directory.
+     * The file is deleted once the storage is closed.
+     *
+     * @param directory The directory to create the file in.
+     * @return The storage.
+     * @throws IOException If the file couldn't be created.
+     */
+    static ClassStorage mapped(Path directory) throws IOException {
+        return new MappedClassStorage(directory);
+    }
+}
@@ -0,0 +1,243 @@
+package org.quiltmc.chasm.api.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.internal.util.ParallelUtils;
+import org.quiltmc.chasm.internal.zip.ZipIndex;
+import org.quiltmc.chasm.internal.zip.ZipOutput;
+
+/**
+ * Writes {@link ClassResult}s to a jar file.
+ *
+ * <p>Entries are written in the order they are passed to this writer, so the output only depends on its input.
+ * If an executor is given, the entries are compressed on it while the compressed entries are appended in order.
+ *
+ * <p>{@link ClassResult.Type#REMOVED} results are left out of the jar.
+ * {@link ClassResult.Type#UNMODIFIED} results that are tagged with a {@link ClassOrigin} are written under their
+ * original entry path. If their origin is a jar, the compressed data of the original entry is copied as is.
+ *
+ * <p>This class is thread-safe, but the order of entries is only deterministic if they are passed in a
+ * deterministic order.
+ */
+public class JarWriter implements Consumer<ClassResult>, Closeable {
+    private static final int MAX_PENDING = 256;
+
+    private final ZipOutput output;
+    private final @Nullable Executor executor;
+
+    private final Map<Path, ZipIndex> sources = new ConcurrentHashMap<>();
+    private final Set<String> names = new HashSet<>();
+    private final Queue<CompletableFuture<Entry>> pending = new ArrayDeque<>();
+
+    /**
+     * Creates a new {@link JarWriter} that compresses entries on the calling thread.
+     *
+     * @param output The jar file to write to. Existing files are overwritten.
+     * @throws IOException If the file can't be created.
+     */
+    public JarWriter(Path output) throws IOException {
+        this(output, null);
+    }
+
+    /**
+     * Creates a new {@link JarWriter}.
+     *
+     * @param output The jar file to write to. Existing files are overwritten.
+     * @param executor The executor to compress entries on, or {@code null} to compress them on the calling thread.
+     * @throws IOException If the file can't be created.
+     */
+    public JarWriter(Path output, @Nullable Executor executor) throws IOException {
+        this.output = new ZipOutput(Files.newOutputStream(output));
+        this.executor = executor;
+    }
+
+    /**
+     * Appends the given result to the jar, unless it was {@link ClassResult.Type#REMOVED removed}.
+     *
+     * @param result The result to write.
+     * @throws UncheckedIOException If writing to the jar fails.
+     */
+    @Override
+    public synchronized void accept(ClassResult result) {
+        if (result.getType() == ClassResult.Type.REMOVED) {
+            return;
+        }
+
+        byte[] classBytes = result.getClassBytes();
+        ClassOrigin origin = result.getMetadata().get(ClassOrigin.class);
+        if (result.getType() == ClassResult.Type.UNMODIFIED && origin != null) {
+            String name = reserveName(origin.getEntryPath());
+            submit(() -> copyOrCompress(name, classBytes, origin));
+        } else {
+            String name = reserveName(new ClassReader(classBytes).getClassName() + ".class");
+            submit(() -> compress(name, classBytes));
+        }
+    }
+
+    /**
+     * Appends a file that isn't a class, such as a resource or manifest, to the jar.
+     *
+     * @param name The path of the entry, using {@code /} as separator.
+     * @param contents The contents of the file.
+     * @throws UncheckedIOException If writing to the jar fails.
+     */
+    public synchronized void addFile(String name, byte[] contents) {
+        String reserved = reserveName(name);
+        submit(() -> compress(reserved, contents));
+    }
+
+    /**
+     * Writes all pending entries and finishes the jar.
+     *
+     * @throws IOException If writing to the jar fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            drain(0);
+            output.close();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            for (ZipIndex source : sources.values()) {
+                source.close();
+            }
+        }
+    }
+
+    private String reserveName(String name) {
+        if (!names.add(name)) {
+            throw new RuntimeException("Duplicate jar entry: " + name);
+        }
+
+        return name;
+    }
+
+    private void submit(Supplier<Entry> supplier) {
+        if (executor == null) {
+            pending.add(CompletableFuture.completedFuture(supplier.get()));
+        } else {
+            pending.add(CompletableFuture.supplyAsync(supplier, executor));
+        }
+
+        drain(MAX_PENDING);
+    }
+
+    private void drain(int maxPending) {
+        // Write entries in order, blocking only if too many are pending
+        while (!pending.isEmpty() && (pending.size() > maxPending || pending.peek().isDone())) {
+            Entry entry;
+            try {
+                entry = pending.remove().join();
+            } catch (CompletionException e) {
+                throw ParallelUtils.unwrap(e);
+            }
+
+            try {
+                output.write(entry.name, entry.method, entry.crc, entry.size, entry.data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private Entry copyOrCompress(String name, byte[] classBytes, ClassOrigin origin) {
+        Path jar = origin.getClasspathEntry();
+        if (!Files.isRegularFile(jar)) {
+            return compress(name, classBytes);
+        }
+
+        try {
+            ZipIndex source = sources.computeIfAbsent(jar, path -> {
+                try {
+                    return new ZipIndex(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            ZipIndex.Entry original = source.getEntry(origin.getEntryPath());
+            int crc = crc(classBytes);
+            if (original == null
+                    || (original.getFlags() & 1) != 0
+                    || (original.getMethod() != ZipOutput.STORED && original.getMethod() != ZipOutput.DEFLATED)
+                    || original.getSize() != classBytes.length
+                    || original.getCrc() != crc) {
+                return compress(name, classBytes);
+            }
+
+            return new Entry(name, original.getMethod(), crc, classBytes.length, source.readStoredData(original));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Entry compress(String name, byte[] contents) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(contents);
+            deflater.finish();
+
+            byte[] buffer = new byte[Math.max(64, contents.length + contents.length / 8 + 64)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+
+            int crc = crc(contents);
+            if (length >= contents.length) {
+                return new Entry(name, ZipOutput.STORED, crc, contents.length, contents);
+            }
+
+            return new Entry(name, ZipOutput.DEFLATED, crc, contents.length, Arrays.copyOf(buffer, length));
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static int crc(byte[] contents) {
+        CRC32 crc = new CRC32();
+        crc.update(contents, 0, contents.length);
+        return (int) crc.getValue();
+    }
+
+    private static class Entry {
+        private final String name;
+        private final int method;
+        private final int crc;
+        private final long size;
+        private final byte[] data;
+
+        Entry(String name, int method, int crc, long size, byte[] data) {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+        }
+    }
+}
@@ -1,15 +1,17 @@
 package org.quiltmc.chasm.internal;
 
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.Opcodes;
 import org.quiltmc.chasm.api.util.ClassInfo;
 import org.quiltmc.chasm.api.util.Context;
+import org.quiltmc.chasm.internal.metadata.ChangeMetadata;
 import org.quiltmc.chasm.internal.util.NodeConstants;
 import org.quiltmc.chasm.internal.util.NodeUtils;
 import org.quiltmc.chasm.lang.api.ast.ListNode;
@@ -19,35 +21,129 @@ import org.quiltmc.chasm.lang.api.ast.Node;
 public class ChasmContext implements Context {
     private final Context parent;
     private final ListNode classes;
+    private final ClassHierarchy hierarchy;
+    private volatile Map<String, Integer> indices = new ConcurrentHashMap<>();
+    // The name each class was indexed with
+    private String[] names = new String[0];
 
     public ChasmContext(Context parent, ListNode classes) {
         this.parent = parent;
         this.classes = classes;
+        this.hierarchy = new ClassHierarchy(this);
     }
 
-    @Override
-    public ClassInfo getClassInfo(String className) {
-        for (Node classNode : classes.getEntries()) {
+    public ClassHierarchy getHierarchy() {
+        return hierarchy;
+    }
+
+    /**
+     * Updates the index of the classes and the cached hierarchy after the classes were added or transformed.
+     * Classes that are renamed by a transformation are only found under their new name after this or
+     * {@link #update(int)} was called.
+     */
+    public synchronized void refresh() {
+        Map<String, Integer> newIndices = new ConcurrentHashMap<>();
+        List<Node> entries = classes.getEntries();
+        String[] newNames = new String[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            Node classNode = entries.get(i);
             String name = NodeUtils.getAsString(classNode, NodeConstants.NAME);
-            if (!name.equals(className)) {
+            newIndices.putIfAbsent(name, i);
+            newNames[i] = name;
+
+            if (ChangeMetadata.isUnmodified(classNode)) {
                 continue;
             }
 
-            String superName = NodeUtils.getAsString(classNode, NodeConstants.SUPER);
-            int access = NodeUtils.getAsInt(classNode, NodeConstants.ACCESS);
-            ListNode interfaces = NodeUtils.getAsList(classNode, NodeConstants.INTERFACES);
+            invalidateChangedSuperClass(name, classNode);
+        }
+
+        // Removed and renamed classes were previously answered differently
+        for (String name : indices.keySet()) {
+            if (!newIndices.containsKey(name)) {
+                hierarchy.invalidate(name);
+            }
+        }
+        for (String name : newIndices.keySet()) {
+            if (!indices.containsKey(name)) {
+                hierarchy.invalidate(name);
+            }
+        }
+
+        indices = newIndices;
+        names = newNames;
+    }
+
+    /**
+     * Updates the index and the cached hierarchy for a single class that was transformed,
+     * so it can be found under its new name before the next {@link #refresh()}.
+     */
+    public synchronized void update(int index) {
+        if (index >= names.length) {
+            return;
+        }
+
+        Node classNode = classes.get(index);
+        String name = NodeUtils.getAsString(classNode, NodeConstants.NAME);
+        String previousName = names[index];
+        if (name.equals(previousName)) {
+            invalidateChangedSuperClass(name, classNode);
+            return;
+        }
+
+        names[index] = name;
+        if (indices.remove(previousName, index)) {
+            // Another class may still have the previous name
+            for (int i = 0; i < names.length; i++) {
+                if (previousName.equals(names[i])) {
+                    indices.put(previousName, i);
+                    break;
+                }
+            }
+        }
+        Integer existing = indices.get(name);
+        if (existing == null || existing > index) {
+            indices.put(name, index);
+        }
+
+        hierarchy.invalidate(previousName);
+        hierarchy.invalidate(name);
+    }
+
+    private void invalidateChangedSuperClass(String name, Node classNode) {
+        String superName = NodeUtils.getAsString(classNode, NodeConstants.SUPER);
+        String cachedSuperName = hierarchy.getCachedSuperClass(name);
+        if (cachedSuperName != null && !cachedSuperName.equals(superName == null ? ClassInfo.OBJECT : superName)) {
+            hierarchy.invalidate(name);
+        }
+    }
 
-            return new ClassInfo(
-                    className,
-                    superName == null && !className.equals(ClassInfo.OBJECT) ? ClassInfo.OBJECT : superName,
-                    interfaces.getEntries().stream().map(NodeUtils::asString).toArray(String[]::new),
-                    (access & Opcodes.ACC_INTERFACE) != 0
-            );
+    @Override
+    public ClassInfo getClassInfo(String className) {
+        Integer index = indices.get(className);
+        if (index != null && index < classes.size()) {
+            Node classNode = classes.get(index);
+            if (className.equals(NodeUtils.getAsString(classNode, NodeConstants.NAME))) {
+                return createClassInfo(className, classNode);
+            }
         }
 
         return parent.getClassInfo(className);
     }
 
+    private static ClassInfo createClassInfo(String className, Node classNode) {
+        String superName = NodeUtils.getAsString(classNode, NodeConstants.SUPER);
+        int access = NodeUtils.getAsInt(classNode, NodeConstants.ACCESS);
+        ListNode interfaces = NodeUtils.getAsList(classNode, NodeConstants.INTERFACES);
+
+        return new ClassInfo(
+                className,
+                superName == null && !className.equals(ClassInfo.OBJECT) ? ClassInfo.OBJECT : superName,
+                interfaces.getEntries().stream().map(NodeUtils::asString).toArray(String[]::new),
+                (access & Opcodes.ACC_INTERFACE) != 0
+        );
+    }
+
     @Override
     public byte @Nullable [] readFile(String path) {
         return parent.readFile(path);
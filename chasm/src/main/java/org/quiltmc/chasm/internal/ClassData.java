@@ -1,5 +1,7 @@
 package org.quiltmc.chasm.internal;
 
+import java.util.function.Supplier;
+
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.quiltmc.chasm.lang.api.metadata.Metadata;
@@ -9,16 +11,24 @@ import org.quiltmc.chasm.lang.api.metadata.Metadata;
  */
 @ApiStatus.Internal
 public final class ClassData {
-    private final byte @NotNull [] classBytes;
+    private final @NotNull Supplier<byte @NotNull []> classBytes;
     private final @NotNull Metadata metadata;
 
     public ClassData(byte @NotNull [] classBytes, @NotNull Metadata metadata) {
+        this(() -> classBytes, metadata);
+    }
+
+    public ClassData(@NotNull Supplier<byte @NotNull []> classBytes, @NotNull Metadata metadata) {
         this.classBytes = classBytes;
         this.metadata = metadata;
     }
 
     public byte @NotNull [] getClassBytes() {
-        return classBytes;
+        byte[] bytes = classBytes.get();
+        if (bytes == null) {
+            throw new RuntimeException("Class supplier returned no bytes");
+        }
+        return bytes;
     }
 
     public @NotNull Metadata getMetadata() {
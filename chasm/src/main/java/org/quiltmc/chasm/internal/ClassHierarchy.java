@@ -0,0 +1,111 @@
+package org.quiltmc.chasm.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.chasm.api.util.ClassInfo;
+import org.quiltmc.chasm.api.util.Context;
+
+/**
+ * Caches the superclass chains of classes, as provided by a {@link Context}.
+ *
+ * <p>This class is thread-safe.
+ * Chains that contain a class whose superclass changed must be dropped using {@link #invalidate(String)}.
+ */
+public class ClassHierarchy {
+    private final Context context;
+    private final Map<String, Ancestors> ancestors = new ConcurrentHashMap<>();
+    // The classes whose chains were computed from the chain of each class, so they can be dropped along with it
+    private final Map<String, Set<String>> subclasses = new ConcurrentHashMap<>();
+
+    public ClassHierarchy(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Returns the closest common superclass of the given classes, ignoring interfaces.
+     */
+    public String getCommonSuperClass(String type1, String type2) {
+        if (type1.equals(type2)) {
+            return type1;
+        }
+
+        Ancestors first = getAncestors(type1);
+        for (Ancestors current = getAncestors(type2); current != null; current = current.parent) {
+            if (first.contains(current.className)) {
+                return current.className;
+            }
+        }
+
+        return ClassInfo.OBJECT;
+    }
+
+    /**
+     * Returns the cached superclass of the given class, or {@code null} if it isn't cached.
+     */
+    public @Nullable String getCachedSuperClass(String className) {
+        Ancestors cached = ancestors.get(className);
+        if (cached == null) {
+            return null;
+        }
+
+        return cached.parent == null ? null : cached.parent.className;
+    }
+
+    /**
+     * Drops the chains of the given class and all of its cached subclasses.
+     */
+    public void invalidate(String className) {
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(className);
+        while (!pending.isEmpty()) {
+            String current = pending.poll();
+            ancestors.remove(current);
+
+            Set<String> children = subclasses.remove(current);
+            if (children != null) {
+                pending.addAll(children);
+            }
+        }
+    }
+
+    private Ancestors getAncestors(String className) {
+        Ancestors cached = ancestors.get(className);
+        if (cached != null) {
+            return cached;
+        }
+
+        Ancestors parent = null;
+        if (!className.equals(ClassInfo.OBJECT)) {
+            String superClass = context.getClassInfo(className).getSuperClass();
+            parent = getAncestors(superClass == null ? ClassInfo.OBJECT : superClass);
+            subclasses.computeIfAbsent(parent.className, key -> ConcurrentHashMap.newKeySet()).add(className);
+        }
+
+        Ancestors computed = new Ancestors(className, parent);
+        Ancestors previous = ancestors.putIfAbsent(className, computed);
+        return previous == null ? computed : previous;
+    }
+
+    private static class Ancestors {
+        private final String className;
+        private final @Nullable Ancestors parent;
+        private final Set<String> members;
+
+        Ancestors(String className, @Nullable Ancestors parent) {
+            this.className = className;
+            this.parent = parent;
+            this.members = parent == null ? new HashSet<>() : new HashSet<>(parent.members);
+            this.members.add(className);
+        }
+
+        boolean contains(String className) {
+            return members.contains(className);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.quiltmc.chasm.internal;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.quiltmc.chasm.api.util.ClassFilter;
+import org.quiltmc.chasm.internal.util.NodeConstants;
+import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+
+/**
+ * Indexes a list of classes by name and package, to select the classes matching a {@link ClassFilter}
+ * without visiting all of them.
+ * Only the names of the classes are read, so lazy classes stay unread.
+ *
+ * <p>The index is a snapshot and must be rebuilt if classes are added, removed or renamed.
+ */
+public class ClassIndex {
+    private final List<Node> classes;
+    private final Map<String, Integer> byName = new HashMap<>();
+    private final NavigableMap<String, List<Integer>> byPackage = new TreeMap<>();
+
+    public ClassIndex(ListNode classes) {
+        this.classes = new ArrayList<>(classes.getEntries());
+
+        for (int i = 0; i < this.classes.size(); i++) {
+            String name = NodeUtils.getAsString(this.classes.get(i), NodeConstants.NAME);
+            byName.putIfAbsent(name, i);
+
+            int end = name.lastIndexOf('/');
+            String packageName = end < 0 ? "" : name.substring(0, end);
+            byPackage.computeIfAbsent(packageName, key -> new ArrayList<>()).add(i);
+        }
+    }
+
+    /**
+     * Returns a new list of all classes matching the given filter, in their original order.
+     */
+    public ListNode select(ClassFilter filter) {
+        BitSet selected = new BitSet(classes.size());
+
+        for (String className : filter.getClasses()) {
+            Integer index = byName.get(className);
+            if (index != null) {
+                selected.set(index);
+            }
+        }
+
+        for (String packageName : filter.getPackages()) {
+            List<Integer> direct = byPackage.get(packageName);
+            if (direct != null) {
+                direct.forEach(selected::set);
+            }
+
+            // Subpackages sort directly after "package/", and before "package0"
+            for (List<Integer> indices : byPackage.subMap(packageName + "/", packageName + "0").values()) {
+                indices.forEach(selected::set);
+            }
+        }
+
+        List<Node> result = new ArrayList<>(selected.cardinality());
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            result.add(classes.get(i));
+        }
+
+        return new ListNode(result);
+    }
+}
@@ -0,0 +1,139 @@
+package org.quiltmc.chasm.internal;
+
+/**
+ * Translates the indices a list had when it was created into its current indices, while entries are inserted
+ * and removed.
+ * Each operation costs {@code O(log n)}, removing entries additionally costs {@code O(log n)} per removed entry.
+ *
+ * <p>The list is modeled as a sequence of slots, each original entry being preceded by a gap that holds the
+ * entries inserted before it, and a final gap holding the entries appended at the end.
+ * A Fenwick tree over the number of entries in each slot gives the current index of an original entry as the
+ * number of entries in the slots before it.
+ *
+ * <p>Original entries that were removed are translated to the index of the first entry after their position.
+ */
+public class IndexShifter {
+    private final int originalSize;
+    private final int[] tree;
+    private int size;
+
+    public IndexShifter(int originalSize) {
+        this.originalSize = originalSize;
+        this.size = originalSize;
+
+        // Slot 2 * i is the gap before original entry i, slot 2 * i + 1 the entry itself
+        this.tree = new int[2 * originalSize + 2];
+        for (int i = 0; i < originalSize; i++) {
+            tree[2 * i + 2] = 1;
+        }
+
+        // Build in linear time
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the current index of the entry that had the given index when the list was created.
+     * Indices at or past the original size are translated relative to the end of the list.
+     */
+    public int translate(int originalIndex) {
+        if (originalIndex >= originalSize) {
+            return size + originalIndex - originalSize;
+        }
+
+        return sum(2 * originalIndex);
+    }
+
+    /**
+     * Returns the smallest original index whose current index is at least the given index,
+     * or the original size if there is none.
+     */
+    public int findOriginal(int index) {
+        // Translation is monotonic, so search for the first original entry at or after the index
+        int low = 0;
+        int high = originalSize;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sum(2 * middle) < index) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Records that {@code count} entries were inserted before the entry currently at {@code index}.
+     */
+    public void insert(int index, int count) {
+        int slot;
+        if (index >= size) {
+            slot = 2 * originalSize;
+        } else {
+            slot = find(index);
+            // Entries inserted before an original entry go into the gap before it
+            if (slot % 2 == 1) {
+                slot--;
+            }
+        }
+
+        add(slot, count);
+        size += count;
+    }
+
+    /**
+     * Records that the entries currently in {@code [start, end)} were removed.
+     */
+    public void remove(int start, int end) {
+        int remaining = end - start;
+        while (remaining > 0) {
+            int slot = find(start);
+            int removed = Math.min(sum(slot) - start, remaining);
+            add(slot, -removed);
+            remaining -= removed;
+        }
+
+        size -= end - start;
+    }
+
+    /**
+     * Returns the number of entries in the slots up to and including the given one.
+     */
+    private int sum(int slot) {
+        int sum = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void add(int slot, int amount) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += amount;
+        }
+    }
+
+    /**
+     * Returns the slot holding the entry currently at the given index.
+     */
+    private int find(int index) {
+        // Find the last position whose prefix sum is at most index, the slot after it holds the entry
+        int position = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+
+        return position;
+    }
+}
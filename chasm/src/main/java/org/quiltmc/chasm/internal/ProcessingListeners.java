@@ -0,0 +1,52 @@
+package org.quiltmc.chasm.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.quiltmc.chasm.api.ProcessingListener;
+
+/**
+ * Passes all events on to a list of {@link ProcessingListener}s, in order.
+ */
+public class ProcessingListeners implements ProcessingListener {
+    private final List<ProcessingListener> listeners = new ArrayList<>();
+
+    public void add(ProcessingListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void onIngest(int classCount, long nanos) {
+        for (ProcessingListener listener : listeners) {
+            listener.onIngest(classCount, nanos);
+        }
+    }
+
+    @Override
+    public void onTransformerApplied(int round, String transformerId, int transformationCount, long nanos) {
+        for (ProcessingListener listener : listeners) {
+            listener.onTransformerApplied(round, transformerId, transformationCount, nanos);
+        }
+    }
+
+    @Override
+    public void onTransformationsSorted(int round, int transformationCount, long nanos) {
+        for (ProcessingListener listener : listeners) {
+            listener.onTransformationsSorted(round, transformationCount, nanos);
+        }
+    }
+
+    @Override
+    public void onTransformationsApplied(int round, int transformationCount, int materializedClasses, long nanos) {
+        for (ProcessingListener listener : listeners) {
+            listener.onTransformationsApplied(round, transformationCount, materializedClasses, nanos);
+        }
+    }
+
+    @Override
+    public void onClassWritten(String className, long nanos) {
+        for (ProcessingListener listener : listeners) {
+            listener.onClassWritten(className, nanos);
+        }
+    }
+}
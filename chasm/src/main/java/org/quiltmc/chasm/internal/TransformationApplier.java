@@ -1,38 +1,81 @@
 package org.quiltmc.chasm.internal;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
 
+import org.jetbrains.annotations.Nullable;
 import org.quiltmc.chasm.api.Transformation;
 import org.quiltmc.chasm.api.target.NodeTarget;
 import org.quiltmc.chasm.api.target.SliceTarget;
 import org.quiltmc.chasm.api.target.Target;
+import org.quiltmc.chasm.internal.metadata.ChangeMetadata;
 import org.quiltmc.chasm.internal.metadata.OriginMetadata;
 import org.quiltmc.chasm.internal.metadata.PathMetadata;
 import org.quiltmc.chasm.internal.tree.ClassNode;
+import org.quiltmc.chasm.internal.util.NodeConstants;
 import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.internal.util.ParallelUtils;
+import org.quiltmc.chasm.internal.util.PathInitializer;
 import org.quiltmc.chasm.lang.api.ast.Ast;
 import org.quiltmc.chasm.lang.api.ast.ListNode;
 import org.quiltmc.chasm.lang.api.ast.MapNode;
 import org.quiltmc.chasm.lang.api.ast.Node;
 
+/**
+ * Applies a sorted list of transformations to the classes.
+ *
+ * <p>The paths of all targets refer to the classes as they were before any transformation was applied.
+ * Instead of rewriting the paths and slice indices of all later targets whenever entries are inserted into or
+ * removed from a list, every changed list gets an {@link IndexShifter} and indices into it are translated when
+ * they are used. Once all transformations are applied, the paths of the changed classes are recomputed.
+ *
+ * <p>Resolved nodes are cached by their path, so resolving a target only walks the part of its path that wasn't
+ * resolved before. Cached nodes are dropped together with their descendants when they are replaced, removed or
+ * materialized.
+ *
+ * <p>If slices are coalesced, slice replacements are deferred and all deferred replacements of a list are applied
+ * in a single pass over it. A replacement is only deferred if it doesn't overlap the deferred replacements of its
+ * list, and deferred replacements are applied before any other transformation reads or replaces a node
+ * in or above the list. Transformations of a slice then see the other entries of the list as they were before the
+ * deferred replacements, so they must not depend on them.
+ */
 public class TransformationApplier {
     private final ListNode classes;
     private final List<Transformation> transformations;
 
-    private final Map<PathMetadata, List<Target>> affectedTargets;
+    // Keyed by the value of the changed list's path, as recomputed lazy entries get new path instances
+    private final Map<PathMetadata, IndexShifter> shifters = new HashMap<>();
+    private final Map<SliceTarget, int[]> originalSlices = new IdentityHashMap<>();
+    private final Set<Integer> changedClasses = new TreeSet<>();
+
+    private final ResolvedNode root;
+    private final Map<PathMetadata, ResolvedNode> resolved = new HashMap<>();
+
+    private boolean coalesceSlices = false;
+    private boolean reuseUnmodified = true;
+    private final Map<PathMetadata, PendingSlices> pendingSlices = new LinkedHashMap<>();
+
+    private int materializedClasses = 0;
+    private @Nullable ChasmContext context;
 
     public TransformationApplier(ListNode classes, List<Transformation> transformations) {
         this.classes = classes;
         this.transformations = transformations;
-
-        this.affectedTargets = new HashMap<>();
+        this.root = new ResolvedNode(null, classes, false);
     }
 
-    private PathMetadata getPath(Target target) {
+    private static PathMetadata getPath(Target target) {
         PathMetadata path = target.getTarget().getMetadata().get(PathMetadata.class);
 
         if (path == null) {
@@ -42,34 +85,151 @@ public class TransformationApplier {
         return path;
     }
 
-    private List<Target> getAffectedTargets(PathMetadata path) {
-        List<Target> affectedTargets = new ArrayList<>();
+    /**
+     * Sets whether slice replacements of the same list are deferred and applied together.
+     */
+    public void setCoalesceSlices(boolean coalesceSlices) {
+        this.coalesceSlices = coalesceSlices;
+    }
 
+    /**
+     * Sets whether changes to materialized classes are tracked, so unchanged classes and methods can keep their
+     * original bytes. Otherwise, every materialized class is written from its nodes.
+     */
+    public void setReuseUnmodified(boolean reuseUnmodified) {
+        this.reuseUnmodified = reuseUnmodified;
+    }
+
+    /**
+     * Sets the context whose class index is updated whenever a class is transformed,
+     * so classes renamed by a transformation are already found by their new name in the same round.
+     */
+    public void setContext(@Nullable ChasmContext context) {
+        this.context = context;
+    }
+
+    public void applyAll() {
         for (Transformation transformation : transformations) {
-            List<Target> targets = new ArrayList<>(transformation.getSources().values());
-            targets.add(transformation.getTarget());
+            applyTransformation(transformation);
+        }
 
-            for (Target target : targets) {
-                if (target instanceof SliceTarget && getPath(target).startsWith(path)) {
-                    affectedTargets.add(target);
-                }
+        for (PathMetadata listPath : new ArrayList<>(pendingSlices.keySet())) {
+            flushSlices(listPath);
+        }
 
-                if (target instanceof NodeTarget && getPath(target).getParent().startsWith(path)) {
-                    affectedTargets.add(target);
-                }
+        // Paths inside changed classes are outdated now, and inserted nodes don't have any
+        for (int index : changedClasses) {
+            PathInitializer.initialize(classes.get(index), new PathMetadata(null, index));
+        }
+    }
+
+    /**
+     * Applies all transformations like {@link #applyAll()}, running independent chains of transformations
+     * concurrently on the given executor.
+     *
+     * <p>Transformations are grouped into chains by the classes of their targets and sources,
+     * so that chains never touch the same class. Each chain keeps the sorted order of its transformations.
+     */
+    public void applyAll(@Nullable Executor executor) {
+        List<List<Transformation>> chains = executor == null ? null : splitChains();
+        if (chains == null || chains.size() <= 1) {
+            applyAll();
+            return;
+        }
+
+        TransformationApplier[] appliers = new TransformationApplier[chains.size()];
+        for (int i = 0; i < appliers.length; i++) {
+            appliers[i] = new TransformationApplier(classes, chains.get(i));
+            appliers[i].setCoalesceSlices(coalesceSlices);
+            appliers[i].setReuseUnmodified(reuseUnmodified);
+            appliers[i].setContext(context);
+        }
+
+        // Chains only replace entries of their own classes, so the class list is never resized concurrently
+        ParallelUtils.forEach(executor, appliers.length, i -> appliers[i].applyAll());
+
+        for (TransformationApplier applier : appliers) {
+            materializedClasses += applier.materializedClasses;
+        }
+    }
+
+    /**
+     * Splits the transformations into chains of transformations that share classes, in order of appearance.
+     */
+    private List<List<Transformation>> splitChains() {
+        // Union-find over class indices, joining the classes of each target with the classes of its sources
+        int[] parents = new int[classes.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+
+        int[] targetClasses = new int[transformations.size()];
+        for (int i = 0; i < transformations.size(); i++) {
+            Transformation transformation = transformations.get(i);
+            int targetClass = findClass(parents, getClassIndex(transformation.getTarget()));
+            for (Target source : transformation.getSources().values()) {
+                int sourceClass = findClass(parents, getClassIndex(source));
+                parents[sourceClass] = targetClass;
             }
+            targetClasses[i] = targetClass;
         }
 
-        return affectedTargets;
+        Map<Integer, List<Transformation>> chains = new LinkedHashMap<>();
+        for (int i = 0; i < transformations.size(); i++) {
+            int chain = findClass(parents, targetClasses[i]);
+            chains.computeIfAbsent(chain, key -> new ArrayList<>()).add(transformations.get(i));
+        }
+
+        return new ArrayList<>(chains.values());
     }
 
-    public void applyAll() {
-        for (Transformation transformation : transformations) {
-            applyTransformation(transformation);
+    private static int getClassIndex(Target target) {
+        return getClassPath(getPath(target)).getEntry().asInteger();
+    }
+
+    /**
+     * Returns the path of the class containing the node at the given path.
+     */
+    private static PathMetadata getClassPath(PathMetadata path) {
+        while (path.getParent() != null) {
+            path = path.getParent();
+        }
+
+        return path;
+    }
+
+    private static int findClass(int[] parents, int index) {
+        int root = index;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+
+        // Compress the path to the root
+        while (parents[index] != root) {
+            int next = parents[index];
+            parents[index] = root;
+            index = next;
         }
+
+        return root;
     }
 
     private void applyTransformation(Transformation transformation) {
+        // Deferred slice replacements must be applied before anything reads or replaces their lists
+        if (!pendingSlices.isEmpty()) {
+            Target target = transformation.getTarget();
+            flushConflictingSlices(getPath(target), target instanceof SliceTarget);
+            for (Target source : transformation.getSources().values()) {
+                flushConflictingSlices(getPath(source), false);
+            }
+        }
+
+        // Update slice indices before the transformation sees them
+        updateSlice(transformation.getTarget());
+        for (Target source : transformation.getSources().values()) {
+            updateSlice(source);
+        }
+
         Node target = resolveNode(getPath(transformation.getTarget()), false);
         MapNode sources = resolveSources(transformation);
 
@@ -92,22 +252,41 @@ public class TransformationApplier {
     private void replaceNode(NodeTarget nodeTarget, Node replacement) {
         // Resolve containing node
         PathMetadata targetPath = getPath(nodeTarget);
-        Node parentNode = resolveNode(targetPath.getParent(), true);
+        ResolvedNode parent = resolve(targetPath.getParent(), true);
+        Node parentNode = parent.node;
 
         // Get index into parent node
         PathMetadata.Entry entry = targetPath.getEntry();
 
+        // A whole class has no parent path, so the class itself is marked instead
+        PathMetadata modifiedPath = targetPath.getParent() == null ? targetPath : targetPath.getParent();
+
         // Replace in list
         if (parentNode instanceof ListNode && entry.isInteger()) {
             ListNode parentList = NodeUtils.asList(parentNode);
-            parentList.getEntries().set(entry.asInteger(), replacement);
+            int index = translate(targetPath.getParent(), entry.asInteger());
+            Node previous = parentList.get(index);
+            if (previous == replacement) {
+                markRewritten(targetPath);
+            } else if (!isUnchanged(targetPath, previous, replacement)) {
+                invalidateChildren(parent, index, index + 1);
+                parentList.getEntries().set(index, replacement);
+                markModified(modifiedPath);
+            }
             return;
         }
 
         // Replace in map
         if (parentNode instanceof MapNode && entry.isString()) {
             MapNode parentList = NodeUtils.asMap(parentNode);
-            parentList.put(entry.asString(), replacement);
+            Node previous = parentList.get(entry.asString());
+            if (previous == replacement) {
+                markRewritten(targetPath);
+            } else if (previous == null || !isUnchanged(targetPath, previous, replacement)) {
+                invalidateChild(parent, entry.asString());
+                parentList.put(entry.asString(), replacement);
+                markModified(modifiedPath);
+            }
             return;
         }
 
@@ -117,7 +296,8 @@ public class TransformationApplier {
     private void replaceSlice(SliceTarget sliceTarget, ListNode replacement) {
         // Resolve containing node
         PathMetadata targetPath = getPath(sliceTarget);
-        Node parentNode = resolveNode(targetPath, true);
+        ResolvedNode parent = resolve(targetPath, true);
+        Node parentNode = parent.node;
 
         if (!(parentNode instanceof ListNode)) {
             throw new UnsupportedOperationException("Replacement for slice target must be a list node.");
@@ -130,89 +310,342 @@ public class TransformationApplier {
         int length = end - start;
         int change = replacement.size() - length;
 
-        // Move all slice indices affected by this
-        List<Target> affectedTargets =
-                this.affectedTargets.computeIfAbsent(targetPath, this::getAffectedTargets);
-        for (Target target : affectedTargets) {
-            if (target instanceof NodeTarget) {
-                movePathIndex(getPath(target), targetPath.getSize(), end, change);
+        // Replacing a slice with identical entries doesn't change anything
+        boolean tracksChanges = tracksChanges(targetPath);
+        if (change == 0 && tracksChanges && isSameSlice(parentList, start, replacement)) {
+            return;
+        }
+
+        if (tracksChanges && keepsEntries(parentList, start, end, replacement)) {
+            markRewritten(targetPath);
+        }
+
+        if (coalesceSlices) {
+            PendingSlices pending = pendingSlices.get(targetPath);
+            if (pending != null && pending.conflicts(start, end)) {
+                flushSlices(targetPath);
+                pending = null;
+
+                // The slice was translated before the deferred replacements moved its entries
+                updateSlice(sliceTarget);
+                start = sliceTarget.getStartIndex() / 2;
+                end = sliceTarget.getEndIndex() / 2;
             }
 
-            if (target instanceof SliceTarget) {
-                if (getPath(target).equals(targetPath)) {
-                    moveSliceIndex((SliceTarget) target, end, change);
-                } else {
-                    movePathIndex(getPath(target), targetPath.getSize(), end, change);
-                }
+            if (pending == null) {
+                pending = new PendingSlices(parent);
+                pendingSlices.put(targetPath, pending);
+            }
+
+            pending.slices.add(new PendingSlice(start, end, replacement.getEntries()));
+            return;
+        }
+
+        // Entries in the slice are replaced in place, surplus entries are inserted or removed at its end
+        invalidateChildren(parent, start, end);
+        recordChange(targetPath, parentList, end, change);
+
+        parentList.splice(start, end, replacement.getEntries());
+
+        markModified(targetPath);
+    }
+
+    /**
+     * Records that {@code change} entries were inserted or removed at the given end of a replaced slice.
+     */
+    private void recordChange(PathMetadata listPath, ListNode list, int end, int change) {
+        if (change == 0) {
+            return;
+        }
+
+        IndexShifter shifter = shifters.computeIfAbsent(listPath, path -> new IndexShifter(list.size()));
+        if (change > 0) {
+            shifter.insert(end, change);
+        } else {
+            shifter.remove(end + change, end);
+        }
+    }
+
+    /**
+     * Applies the deferred slice replacements of lists that contain, or are contained in, the node at the given path.
+     * If the path is the target of a slice, deferred replacements of that list itself are kept.
+     */
+    private void flushConflictingSlices(PathMetadata path, boolean isSlice) {
+        for (PathMetadata listPath : new ArrayList<>(pendingSlices.keySet())) {
+            if (isSlice && listPath.equals(path)) {
+                continue;
+            }
+
+            if (path.startsWith(listPath) || listPath.startsWith(path)) {
+                flushSlices(listPath);
+            }
+        }
+    }
+
+    /**
+     * Applies all deferred slice replacements of the given list in a single pass.
+     */
+    private void flushSlices(PathMetadata listPath) {
+        PendingSlices pending = pendingSlices.remove(listPath);
+        ListNode list = NodeUtils.asList(pending.list.node);
+        List<PendingSlice> slices = pending.slices;
+
+        // Stable, so insertions at the same index keep their order
+        slices.sort(Comparator.comparingInt(slice -> slice.start));
+
+        int size = list.size();
+        for (PendingSlice slice : slices) {
+            invalidateChildren(pending.list, slice.start, slice.end);
+            size += slice.replacement.size() - (slice.end - slice.start);
+        }
+
+        // Record changes from right to left, so the indices of the slices to the left are still current
+        for (int i = slices.size() - 1; i >= 0; i--) {
+            PendingSlice slice = slices.get(i);
+            recordChange(listPath, list, slice.end, slice.replacement.size() - (slice.end - slice.start));
+        }
+
+        List<Node> entries = list.getEntries();
+        List<Node> rebuilt = new ArrayList<>(size);
+        int position = 0;
+        for (PendingSlice slice : slices) {
+            rebuilt.addAll(entries.subList(position, slice.start));
+            rebuilt.addAll(slice.replacement);
+            position = slice.end;
+        }
+        rebuilt.addAll(entries.subList(position, entries.size()));
+        list.splice(0, entries.size(), rebuilt);
+
+        markModified(listPath);
+    }
+
+    /**
+     * Checks whether replacing the node at the given path with a different instance doesn't change anything.
+     */
+    private boolean isUnchanged(PathMetadata path, Node previous, Node replacement) {
+        return tracksChanges(path) && NodeUtils.contentEquals(previous, replacement);
+    }
+
+    /**
+     * Checks whether the class containing the given path tracks changes.
+     * Only then an unchanged class can keep its original bytes, so comparing replacements with the nodes they
+     * replace is skipped otherwise.
+     */
+    private boolean tracksChanges(PathMetadata path) {
+        return resolveNode(getClassPath(path), false).getMetadata().get(ChangeMetadata.class) != null;
+    }
+
+    /**
+     * Checks whether the replacement of a slice has the same content as the slice, without reusing its entries.
+     */
+    private static boolean isSameSlice(ListNode list, int start, ListNode replacement) {
+        for (int i = 0; i < replacement.size(); i++) {
+            Node entry = list.get(start + i);
+            if (entry == replacement.get(i) || !NodeUtils.contentEquals(entry, replacement.get(i))) {
+                return false;
             }
         }
 
-        // Remove old entries
-        for (int i = 0; i < length; i++) {
-            parentList.getEntries().remove(start);
+        return true;
+    }
+
+    /**
+     * Checks whether the replacement of the slice {@code [start, end)} contains any of the replaced entries.
+     */
+    private static boolean keepsEntries(ListNode list, int start, int end, ListNode replacement) {
+        if (start == end || replacement.size() == 0) {
+            return false;
         }
 
-        // Insert new entries
-        for (Node entry : replacement.getEntries()) {
-            parentList.getEntries().add(start++, entry);
+        Set<Node> entries = Collections.newSetFromMap(new IdentityHashMap<>());
+        entries.addAll(list.getEntries().subList(start, end));
+        for (Node node : replacement.getEntries()) {
+            if (entries.contains(node)) {
+                return true;
+            }
         }
+
+        return false;
     }
 
-    private void movePathIndex(PathMetadata path, int pathIndex, int endIndex, int amount) {
-        PathMetadata.Entry entry = path.getEntry(pathIndex);
-        int originalIndex = entry.asInteger();
-        if (originalIndex >= endIndex) {
-            entry.set(originalIndex + amount);
+    /**
+     * Translates the slice indices of the given target to the current state of its list.
+     */
+    private void updateSlice(Target target) {
+        if (!(target instanceof SliceTarget)) {
+            return;
         }
+
+        SliceTarget slice = (SliceTarget) target;
+        int[] original = originalSlices.computeIfAbsent(slice,
+                key -> new int[] { key.getStartIndex(), key.getEndIndex() });
+        PathMetadata path = getPath(slice);
+
+        // Virtual indices point before (even) or after (odd) an entry, only the entry index moves
+        slice.setStartIndex(2 * translate(path, original[0] / 2) + original[0] % 2);
+        slice.setEndIndex(2 * translate(path, original[1] / 2) + original[1] % 2);
+    }
+
+    /**
+     * Translates an index into the list at the given path to the current state of that list.
+     */
+    private int translate(@Nullable PathMetadata listPath, int index) {
+        IndexShifter shifter = listPath == null ? null : shifters.get(listPath);
+        return shifter == null ? index : shifter.translate(index);
     }
 
-    private void moveSliceIndex(SliceTarget target, int end, int change) {
-        if (target.getStartIndex() / 2 >= end) {
-            target.setStartIndex(target.getStartIndex() + 2 * change);
+    /**
+     * Marks all nodes along the given path as modified, if they belong to a class that tracks changes.
+     */
+    private void markModified(PathMetadata path) {
+        PathMetadata classPath = getClassPath(path);
+        int classIndex = classPath.getEntry().asInteger();
+        changedClasses.add(classIndex);
+        if (context != null) {
+            context.update(classIndex);
+        }
+
+        ChangeMetadata changes = resolveNode(classPath, false).getMetadata().get(ChangeMetadata.class);
+        if (changes == null) {
+            return;
+        }
+
+        for (PathMetadata current = path; current != null; current = current.getParent()) {
+            changes.markModified(resolveNode(current, false));
         }
+    }
 
-        if (target.getEndIndex() / 2 >= end) {
-            target.setEndIndex(target.getEndIndex() + 2 * change);
+    /**
+     * Marks the node at the given path as modified after a transformation returned it instead of a replacement.
+     * The transformation may have edited it in place, which can't be told apart from the original nodes,
+     * so unless the node is part of a single method, no method of the class is copied from its source.
+     */
+    private void markRewritten(PathMetadata path) {
+        // Edits of a lazily read class must be kept by materializing it
+        resolve(path, true);
+        markModified(path);
+
+        ChangeMetadata changes = resolveNode(getClassPath(path), false).getMetadata().get(ChangeMetadata.class);
+        if (changes != null && !isInsideMethod(path)) {
+            changes.markRewritten();
         }
     }
 
+    private static boolean isInsideMethod(PathMetadata path) {
+        // Method paths are the class index, the methods key and the index of the method
+        return path.getSize() > 3 && NodeConstants.METHODS.equals(path.getEntry(1).asString());
+    }
+
     private Node resolveNode(PathMetadata path, boolean resolveLazyNodes) {
-        Node currentNode = classes;
-
-        for (PathMetadata.Entry entry : path) {
-            if (currentNode instanceof ListNode && entry.isInteger()) {
-                // Get next node
-                ListNode listNode = NodeUtils.asList(currentNode);
-                int index = entry.asInteger();
-                Node nextNode = listNode.get(index);
-
-                // Resolve lazy nodes
-                if (resolveLazyNodes && nextNode instanceof ClassNode) {
-                    nextNode = new MapNode(((ClassNode) nextNode).getLazyEntries());
-                    listNode.getEntries().set(index, nextNode);
-                }
+        return resolve(path, resolveLazyNodes).node;
+    }
 
-                currentNode = nextNode;
-            } else if (currentNode instanceof MapNode && entry.isString()) {
-                // Get next node
-                MapNode mapNode = NodeUtils.asMap(currentNode);
-                String key = entry.asString();
-                Node nextNode = mapNode.get(key);
-
-                // Resolve lazy nodes
-                if (resolveLazyNodes && nextNode instanceof ClassNode) {
-                    nextNode = new MapNode(((ClassNode) nextNode).getLazyEntries());
-                    mapNode.put(key, nextNode);
-                }
+    private ResolvedNode resolve(@Nullable PathMetadata path, boolean resolveLazyNodes) {
+        if (path == null) {
+            return root;
+        }
 
-                currentNode = nextNode;
-            } else {
-                throw new RuntimeException("Can't resolve path " + path);
+        ResolvedNode cached = resolved.get(path);
+        if (cached != null && !(resolveLazyNodes && cached.lazy)) {
+            return cached;
+        }
+
+        ResolvedNode parent = resolve(path.getParent(), resolveLazyNodes);
+        PathMetadata.Entry entry = path.getEntry();
+        Node node;
+        if (parent.node instanceof ListNode && entry.isInteger()) {
+            // Get next node
+            ListNode listNode = NodeUtils.asList(parent.node);
+            int index = translate(path.getParent(), entry.asInteger());
+            node = listNode.get(index);
+
+            // Resolve lazy nodes
+            if (resolveLazyNodes && node instanceof ClassNode) {
+                invalidateChildren(parent, index, index + 1);
+                node = materialize((ClassNode) node);
+                listNode.getEntries().set(index, node);
+            }
+        } else if (parent.node instanceof MapNode && entry.isString()) {
+            // Get next node
+            MapNode mapNode = NodeUtils.asMap(parent.node);
+            String key = entry.asString();
+            node = mapNode.get(key);
+
+            // Resolve lazy nodes
+            if (resolveLazyNodes && node instanceof ClassNode) {
+                invalidateChild(parent, key);
+                node = materialize((ClassNode) node);
+                mapNode.put(key, node);
+            }
+        } else {
+            throw new RuntimeException("Can't resolve path " + path);
+        }
+
+        Objects.requireNonNull(node);
+        ResolvedNode result = new ResolvedNode(path, node, parent.lazy || node instanceof ClassNode);
+        parent.addChild(entry, result);
+        resolved.put(path, result);
+        return result;
+    }
+
+    /**
+     * Drops the cached children of a list whose current index is in {@code [start, end)}.
+     */
+    private void invalidateChildren(ResolvedNode parent, int start, int end) {
+        if (parent.indexedChildren == null) {
+            return;
+        }
+
+        IndexShifter shifter = parent.path == null ? null : shifters.get(parent.path);
+        int originalStart = shifter == null ? start : shifter.findOriginal(start);
+        int originalEnd = shifter == null ? end : shifter.findOriginal(end);
+
+        Map<Integer, List<ResolvedNode>> children = parent.indexedChildren.subMap(originalStart, originalEnd);
+        children.values().forEach(this::invalidate);
+        children.clear();
+    }
+
+    /**
+     * Drops the cached children of a map with the given key.
+     */
+    private void invalidateChild(ResolvedNode parent, String key) {
+        if (parent.namedChildren == null) {
+            return;
+        }
+
+        List<ResolvedNode> children = parent.namedChildren.remove(key);
+        if (children != null) {
+            invalidate(children);
+        }
+    }
+
+    private void invalidate(List<ResolvedNode> nodes) {
+        for (ResolvedNode node : nodes) {
+            resolved.remove(node.path, node);
+            if (node.indexedChildren != null) {
+                node.indexedChildren.values().forEach(this::invalidate);
+            }
+            if (node.namedChildren != null) {
+                node.namedChildren.values().forEach(this::invalidate);
             }
         }
+    }
+
+    /**
+     * Returns the number of lazily read classes that were turned into modifiable nodes so far.
+     */
+    public int getMaterializedClasses() {
+        return materializedClasses;
+    }
 
-        Objects.requireNonNull(currentNode);
-        return currentNode;
+    private MapNode materialize(ClassNode classNode) {
+        materializedClasses++;
+        MapNode mapNode = new MapNode(classNode.getLazyEntries());
+        mapNode.getMetadata().putAll(classNode.getMetadata());
+        if (reuseUnmodified) {
+            mapNode.getMetadata().put(ChangeMetadata.class, new ChangeMetadata(classNode));
+        }
+        return mapNode;
     }
 
     private MapNode resolveSources(Transformation transformation) {
@@ -222,4 +655,87 @@ public class TransformationApplier {
         }
         return resolvedSources;
     }
+
+    /**
+     * A node in the cache of resolved nodes, which also tracks the cached children to drop them with it.
+     * A lazy node is resolved again once its class is materialized, so each index or key maps to a list of children.
+     */
+    private static class ResolvedNode {
+        private final @Nullable PathMetadata path;
+        private final Node node;
+        // Whether this node is or is contained in a class that isn't materialized
+        private final boolean lazy;
+
+        private @Nullable TreeMap<Integer, List<ResolvedNode>> indexedChildren;
+        private @Nullable Map<String, List<ResolvedNode>> namedChildren;
+
+        ResolvedNode(@Nullable PathMetadata path, Node node, boolean lazy) {
+            this.path = path;
+            this.node = node;
+            this.lazy = lazy;
+        }
+
+        void addChild(PathMetadata.Entry entry, ResolvedNode child) {
+            if (entry.isInteger()) {
+                if (indexedChildren == null) {
+                    indexedChildren = new TreeMap<>();
+                }
+                indexedChildren.computeIfAbsent(entry.asInteger(), key -> new ArrayList<>()).add(child);
+            } else {
+                if (namedChildren == null) {
+                    namedChildren = new HashMap<>();
+                }
+                namedChildren.computeIfAbsent(entry.asString(), key -> new ArrayList<>()).add(child);
+            }
+        }
+    }
+
+    /**
+     * The deferred slice replacements of a list, with indices referring to the list before any of them is applied.
+     */
+    private static class PendingSlices {
+        private final ResolvedNode list;
+        private final List<PendingSlice> slices = new ArrayList<>();
+
+        PendingSlices(ResolvedNode list) {
+            this.list = list;
+        }
+
+        /**
+         * Returns whether the given slice can't be replaced in the same pass as the deferred ones.
+         */
+        boolean conflicts(int start, int end) {
+            for (PendingSlice slice : slices) {
+                boolean conflicts;
+                if (start == end && slice.start == slice.end) {
+                    // Insertions at the same index are applied in order
+                    conflicts = false;
+                } else if (start == end) {
+                    conflicts = slice.start <= start && start <= slice.end;
+                } else if (slice.start == slice.end) {
+                    conflicts = start <= slice.start && slice.start <= end;
+                } else {
+                    conflicts = start < slice.end && slice.start < end;
+                }
+
+                if (conflicts) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    private static class PendingSlice {
+        private final int start;
+        private final int end;
+        private final List<Node> replacement;
+
+        PendingSlice(int start, int end, List<Node> replacement) {
+            this.start = start;
+            this.end = end;
+            this.replacement = replacement;
+        }
+    }
 }
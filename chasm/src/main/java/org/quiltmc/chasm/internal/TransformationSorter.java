@@ -3,15 +3,17 @@ package org.quiltmc.chasm.internal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import org.quiltmc.chasm.api.Lock;
@@ -20,53 +22,63 @@ import org.quiltmc.chasm.api.target.SliceTarget;
 import org.quiltmc.chasm.api.target.Target;
 import org.quiltmc.chasm.internal.metadata.PathMetadata;
 
+/**
+ * Sorts transformations so that they are applied after the transformations they depend on.
+ *
+ * <p>Dependencies come from the transformer order and from overlapping targets and sources.
+ * Hard dependencies must be satisfied, while soft dependencies are broken if the transformations can't be sorted
+ * otherwise, starting with the transformation that has the fewest of them.
+ * Transformations that are ready at the same time are sorted by their position in the input,
+ * so the result is deterministic.
+ */
 public class TransformationSorter {
     public static List<Transformation> sort(Collection<Transformation> transformations) {
-        List<TransformationInfo> infos = transformations.stream().map(TransformationInfo::new)
-                .collect(Collectors.toCollection(LinkedList::new));
+        List<TransformationInfo> infos = new ArrayList<>(transformations.size());
+        for (Transformation transformation : transformations) {
+            infos.add(new TransformationInfo(transformation, infos.size()));
+        }
 
         computeDependencies(infos);
 
+        // Transformations without remaining dependencies, by input position
+        PriorityQueue<TransformationInfo> ready = new PriorityQueue<>(Comparator.comparingInt(info -> info.index));
+        // Transformations with only soft dependencies remaining, by their number and input position.
+        // Entries are added again whenever that number changes, outdated ones are skipped.
+        PriorityQueue<SoftEntry> soft = new PriorityQueue<>();
+
+        for (TransformationInfo info : infos) {
+            info.hardCount = info.dependencies.size();
+            info.softCount = info.softDependencies.size();
+            info.enqueue(ready, soft);
+        }
+
         List<Transformation> sorted = new ArrayList<>(transformations.size());
+        while (sorted.size() < infos.size()) {
+            TransformationInfo next = ready.poll();
+
+            // If nothing is ready, break the soft dependencies of the transformation with the fewest of them
+            while (next == null) {
+                SoftEntry entry = soft.poll();
+                if (entry == null) {
+                    // If there is no node with only soft dependencies, we can't sort the given set
+                    throw new RuntimeException("Can't sort the given Transformations");
+                }
 
-        while (!infos.isEmpty()) {
-            boolean breakSoftDependencies = true;
-            int minSoftDependencies = 0;
-            TransformationInfo softToBreak = null;
-
-            Iterator<TransformationInfo> iterator = infos.iterator();
-            while (iterator.hasNext()) {
-                TransformationInfo next = iterator.next();
-                if (next.getHardDependencies().isEmpty()) {
-                    if (next.getSoftDependencies().isEmpty()) {
-                        // If no more dependencies, remove
-                        next.remove();
-                        iterator.remove();
-                        sorted.add(next.get());
-                        // No need to break soft dependencies
-                        breakSoftDependencies = false;
-                    } else {
-                        // If only soft dependencies, keep track of node with the least of them
-                        int softDependencies = next.getSoftDependencies().size();
-                        if (softDependencies < minSoftDependencies || softToBreak == null) {
-                            minSoftDependencies = softDependencies;
-                            softToBreak = next;
-                        }
-                    }
+                if (!entry.info.sorted && entry.softCount == entry.info.softCount) {
+                    next = entry.info;
                 }
+            }
 
-                // If no node was removed this iteration, break a soft dependency
-                if (breakSoftDependencies) {
-                    if (softToBreak == null) {
-                        // If there is no node with only soft dependencies, we can't sort the given set
-                        throw new RuntimeException("Can't sort the give Transformations");
-                    }
+            next.sorted = true;
+            sorted.add(next.get());
 
-                    // Remove node and add it to sorted
-                    infos.remove(softToBreak);
-                    softToBreak.remove();
-                    sorted.add(softToBreak.get());
-                }
+            for (TransformationInfo dependent : next.dependents) {
+                dependent.hardCount--;
+                dependent.enqueue(ready, soft);
+            }
+            for (TransformationInfo dependent : next.softDependents) {
+                dependent.softCount--;
+                dependent.enqueue(ready, soft);
             }
         }
 
@@ -105,7 +117,7 @@ public class TransformationSorter {
             targets.add(new TargetInfo(transformation, target, TargetType.TARGET, targetPath));
 
             for (Target source : transformation.get().getSources().values()) {
-                PathMetadata sourcePath = target.getTarget().getMetadata().get(PathMetadata.class);
+                PathMetadata sourcePath = source.getTarget().getMetadata().get(PathMetadata.class);
                 Objects.requireNonNull(sourcePath);
                 targets.add(new TargetInfo(transformation, source, TargetType.SOURCE, sourcePath));
             }
@@ -119,9 +131,8 @@ public class TransformationSorter {
         // Group by path
         Map<PathMetadata.Entry, List<TargetInfo>> childrenByKey = new LinkedHashMap<>();
         for (TargetInfo target : targets) {
-            PathMetadata path = target.getPath();
-            PathMetadata.Entry entry = path.getSize() > depth ? path.getEntry(depth) : null;
-            childrenByKey.computeIfAbsent(entry, e -> new ArrayList<>());
+            PathMetadata.Entry entry = target.getEntry(depth);
+            childrenByKey.computeIfAbsent(entry, e -> new ArrayList<>()).add(target);
         }
 
         // All Targets targeting the current node
@@ -130,7 +141,7 @@ public class TransformationSorter {
 
         // NodeTargets target the entire node.
         List<TargetInfo> nodeTargets = currentTargets.stream()
-                .filter(t -> t.getTarget() instanceof SliceTarget).collect(Collectors.toList());
+                .filter(t -> !(t.getTarget() instanceof SliceTarget)).collect(Collectors.toList());
 
         // All enclosing targets depend on all node targets
         for (TargetInfo enclosingTarget : enclosingTargets) {
@@ -152,77 +163,109 @@ public class TransformationSorter {
                 recurseTargets(children, depth + 1, enclosingTargets);
             }
         } else {
-            // Collect slice start and end indices
-            Map<Integer, List<TargetInfo>> targetsByStart = new LinkedHashMap<>();
-            Map<Integer, List<TargetInfo>> targetsByEnd = new LinkedHashMap<>();
-            Map<Integer, List<TargetInfo>> zeroLengthTargets = new LinkedHashMap<>();
-
-            for (TargetInfo targetInfo : sliceTargets) {
-                SliceTarget slice = (SliceTarget) targetInfo.getTarget();
-                int start = slice.getStartIndex();
-                int end = slice.getEndIndex();
-
-                if (start == end) {
-                    zeroLengthTargets.computeIfAbsent(start, i -> new ArrayList<>()).add(targetInfo);
-                } else {
-                    targetsByStart.computeIfAbsent(slice.getStartIndex(), i -> new ArrayList<>()).add(targetInfo);
-                    targetsByEnd.computeIfAbsent(slice.getEndIndex(), i -> new ArrayList<>()).add(targetInfo);
-                }
+            sweepSlices(sliceTargets, childrenByKey, depth, enclosingTargets);
+        }
+
+        // End of all node targets
+        enclosingTargets.removeAll(nodeTargets);
+    }
+
+    /**
+     * Adds the dependencies between the slices of a list, their enclosing targets and the targets in the list,
+     * visiting only the virtual indices where a slice starts or ends, or a targeted entry is.
+     */
+    private static void sweepSlices(List<TargetInfo> sliceTargets, Map<PathMetadata.Entry, List<TargetInfo>> children,
+                                    int depth, Set<TargetInfo> enclosingTargets) {
+        // Collect slice start and end indices, and the virtual indices of targeted entries
+        Map<Integer, List<TargetInfo>> targetsByStart = new HashMap<>();
+        Map<Integer, List<TargetInfo>> targetsByEnd = new HashMap<>();
+        Map<Integer, List<TargetInfo>> zeroLengthTargets = new HashMap<>();
+        TreeSet<Integer> indices = new TreeSet<>();
+
+        for (TargetInfo targetInfo : sliceTargets) {
+            SliceTarget slice = (SliceTarget) targetInfo.getTarget();
+            int start = slice.getStartIndex();
+            int end = slice.getEndIndex();
+
+            if (start == end) {
+                zeroLengthTargets.computeIfAbsent(start, i -> new ArrayList<>()).add(targetInfo);
+            } else {
+                targetsByStart.computeIfAbsent(start, i -> new ArrayList<>()).add(targetInfo);
+                targetsByEnd.computeIfAbsent(end, i -> new ArrayList<>()).add(targetInfo);
+                indices.add(end);
             }
+            indices.add(start);
+        }
 
-            // Iterate over slice
-            int index = 0;
-            while (!childrenByKey.isEmpty() && !targetsByStart.isEmpty() && !targetsByEnd.isEmpty()) {
-                // Get all targets ending at this index
-                List<TargetInfo> endTargets = targetsByEnd.getOrDefault(index, Collections.emptyList());
+        for (PathMetadata.Entry entry : children.keySet()) {
+            if (entry.isInteger()) {
+                indices.add(entry.asInteger() * 2 + 1);
+            }
+        }
 
-                // Remove from enclosing targets
-                enclosingTargets.removeAll(endTargets);
+        // Slices of this list that are currently open, by start index
+        TreeMap<Integer, List<TargetInfo>> openSlices = new TreeMap<>();
+
+        for (int index : indices) {
+            // Get all targets ending at this index
+            List<TargetInfo> endTargets = targetsByEnd.getOrDefault(index, Collections.emptyList());
+
+            // Remove from enclosing targets
+            enclosingTargets.removeAll(endTargets);
+            for (TargetInfo endTarget : endTargets) {
+                int start = ((SliceTarget) endTarget.getTarget()).getStartIndex();
+                List<TargetInfo> open = openSlices.get(start);
+                open.remove(endTarget);
+                if (open.isEmpty()) {
+                    openSlices.remove(start);
+                }
+            }
 
-                // All remaining enclosing targets depend on all slice ends
-                for (TargetInfo enclosingTarget : enclosingTargets) {
-                    for (TargetInfo endTarget : endTargets) {
+            // All remaining enclosing targets depend on all slice ends.
+            // Those that were already open when a slice started depend on it already.
+            for (TargetInfo endTarget : endTargets) {
+                int start = ((SliceTarget) endTarget.getTarget()).getStartIndex();
+                for (List<TargetInfo> open : openSlices.tailMap(start).values()) {
+                    for (TargetInfo enclosingTarget : open) {
                         enclosingTarget.addDependency(endTarget);
                     }
                 }
+            }
 
-                // Get all zero-length targets at this index
-                List<TargetInfo> zeroTargets = zeroLengthTargets.getOrDefault(index, Collections.emptyList());
+            // Get all zero-length targets at this index
+            List<TargetInfo> zeroTargets = zeroLengthTargets.getOrDefault(index, Collections.emptyList());
 
-                // All enclosing targets depend on all zero-length targets
-                for (TargetInfo enclosingTarget : enclosingTargets) {
-                    for (TargetInfo zeroTarget : zeroTargets) {
-                        enclosingTarget.addDependency(zeroTarget);
-                    }
+            // All enclosing targets depend on all zero-length targets
+            for (TargetInfo enclosingTarget : enclosingTargets) {
+                for (TargetInfo zeroTarget : zeroTargets) {
+                    enclosingTarget.addDependency(zeroTarget);
                 }
+            }
 
-                // Get all targets starting at this index
-                List<TargetInfo> startTargets = targetsByStart.getOrDefault(index, Collections.emptyList());
+            // Get all targets starting at this index
+            List<TargetInfo> startTargets = targetsByStart.getOrDefault(index, Collections.emptyList());
 
-                // All enclosing targets depend on all slice starts
-                for (TargetInfo enclosingTarget : enclosingTargets) {
-                    for (TargetInfo startTarget : startTargets) {
-                        enclosingTarget.addDependency(startTarget);
-                    }
+            // All enclosing targets depend on all slice starts
+            for (TargetInfo enclosingTarget : enclosingTargets) {
+                for (TargetInfo startTarget : startTargets) {
+                    enclosingTarget.addDependency(startTarget);
                 }
+            }
 
-                // Add to enclosing targets
-                enclosingTargets.addAll(startTargets);
+            // Add to enclosing targets
+            enclosingTargets.addAll(startTargets);
+            if (!startTargets.isEmpty()) {
+                openSlices.put(index, new ArrayList<>(startTargets));
+            }
 
-                if (index % 2 != 0) {
-                    // Convert slice index to node index
-                    PathMetadata.Entry entry = new PathMetadata.Entry(index / 2);
-                    List<TargetInfo> children = childrenByKey.getOrDefault(entry, Collections.emptyList());
-                    recurseTargets(children, depth + 1, enclosingTargets);
+            if (index % 2 != 0) {
+                // Convert slice index to node index
+                List<TargetInfo> entryTargets = children.get(new PathMetadata.Entry(index / 2));
+                if (entryTargets != null) {
+                    recurseTargets(entryTargets, depth + 1, enclosingTargets);
                 }
-
-                // Increment index
-                index++;
             }
         }
-
-        // End of all node targets
-        enclosingTargets.removeAll(nodeTargets);
     }
 
     enum TargetType {
@@ -236,18 +279,32 @@ public class TransformationSorter {
         private final TargetType type;
 
         private final PathMetadata path;
+        private final PathMetadata.Entry[] entries;
 
         public TargetInfo(TransformationInfo parent, Target target, TargetType type, PathMetadata path) {
             this.parent = parent;
             this.target = target;
             this.type = type;
             this.path = path;
+
+            this.entries = new PathMetadata.Entry[path.getSize()];
+            int index = 0;
+            for (PathMetadata.Entry entry : path) {
+                entries[index++] = entry;
+            }
         }
 
         public PathMetadata getPath() {
             return path;
         }
 
+        /**
+         * Returns the entry of the path at the given depth, or {@code null} if the path ends before it.
+         */
+        public PathMetadata.Entry getEntry(int depth) {
+            return depth < entries.length ? entries[depth] : null;
+        }
+
         public Target getTarget() {
             return target;
         }
@@ -284,6 +341,7 @@ public class TransformationSorter {
 
     static class TransformationInfo {
         private final Transformation transformation;
+        private final int index;
 
         private final Set<TransformationInfo> dependencies = new LinkedHashSet<>();
         private final Set<TransformationInfo> softDependencies = new LinkedHashSet<>();
@@ -291,8 +349,14 @@ public class TransformationSorter {
         private final Set<TransformationInfo> dependents = new LinkedHashSet<>();
         private final Set<TransformationInfo> softDependents = new LinkedHashSet<>();
 
-        public TransformationInfo(Transformation transformation) {
+        // Number of dependencies that aren't sorted yet
+        private int hardCount;
+        private int softCount;
+        private boolean sorted;
+
+        public TransformationInfo(Transformation transformation, int index) {
             this.transformation = transformation;
+            this.index = index;
         }
 
         public Transformation get() {
@@ -300,11 +364,20 @@ public class TransformationSorter {
         }
 
         public void addDependency(TransformationInfo other) {
+            // A transformation is trivially applied in order with itself
+            if (other == this) {
+                return;
+            }
+
             this.dependencies.add(other);
             other.dependents.add(this);
         }
 
         public void addSoftDependency(TransformationInfo other) {
+            if (other == this) {
+                return;
+            }
+
             this.softDependencies.add(other);
             other.softDependents.add(this);
         }
@@ -317,13 +390,32 @@ public class TransformationSorter {
             return softDependencies;
         }
 
-        public void remove() {
-            for (TransformationInfo info : dependents) {
-                info.dependencies.remove(this);
+        private void enqueue(PriorityQueue<TransformationInfo> ready, PriorityQueue<SoftEntry> soft) {
+            if (sorted || hardCount > 0) {
+                return;
             }
-            for (TransformationInfo info : softDependents) {
-                info.softDependencies.remove(this);
+
+            if (softCount == 0) {
+                ready.add(this);
+            } else {
+                soft.add(new SoftEntry(this, softCount));
             }
         }
     }
+
+    private static class SoftEntry implements Comparable<SoftEntry> {
+        private final TransformationInfo info;
+        private final int softCount;
+
+        SoftEntry(TransformationInfo info, int softCount) {
+            this.info = info;
+            this.softCount = softCount;
+        }
+
+        @Override
+        public int compareTo(SoftEntry other) {
+            int result = Integer.compare(softCount, other.softCount);
+            return result != 0 ? result : Integer.compare(info.index, other.info.index);
+        }
+    }
 }
@@ -1,32 +1,29 @@
 package org.quiltmc.chasm.internal.asm;
 
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
-import org.quiltmc.chasm.api.util.ClassInfo;
-import org.quiltmc.chasm.api.util.Context;
+import org.quiltmc.chasm.internal.ClassHierarchy;
 
 public class ChasmClassWriter extends ClassWriter {
-    private final Context context;
+    private final ClassHierarchy hierarchy;
 
-    public ChasmClassWriter(Context context) {
-        super(COMPUTE_FRAMES);
+    public ChasmClassWriter(ClassHierarchy hierarchy) {
+        this(hierarchy, null, COMPUTE_FRAMES);
+    }
+
+    /**
+     * Creates a writer that shares the constant pool of the given class,
+     * which allows methods visited by that class's reader to be copied without being parsed.
+     */
+    public ChasmClassWriter(ClassHierarchy hierarchy, @Nullable ClassReader source, int flags) {
+        super(source, flags);
 
-        this.context = context;
+        this.hierarchy = hierarchy;
     }
 
     @Override
     protected String getCommonSuperClass(String type1, String type2) {
-        String current1 = type1;
-        while (!current1.equals(ClassInfo.OBJECT)) {
-            String current2 = type2;
-            while (!current2.equals(ClassInfo.OBJECT)) {
-                if (current1.equals(current2)) {
-                    return current1;
-                }
-                current2 = context.getClassInfo(current2).getSuperClass();
-            }
-            current1 = context.getClassInfo(current1).getSuperClass();
-        }
-
-        return ClassInfo.OBJECT;
+        return hierarchy.getCommonSuperClass(type1, type2);
     }
 }
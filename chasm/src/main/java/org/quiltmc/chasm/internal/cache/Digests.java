@@ -0,0 +1,78 @@
+package org.quiltmc.chasm.internal.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.chasm.api.util.ClassInfo;
+
+public class Digests {
+    /**
+     * The digest of absent values, e.g. files that don't exist.
+     */
+    public static final byte[] ABSENT = new byte[0];
+
+    private Digests() {
+    }
+
+    public static MessageDigest create() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not supported", e);
+        }
+    }
+
+    public static byte[] of(byte @Nullable [] bytes) {
+        if (bytes == null) {
+            return ABSENT;
+        }
+
+        return create().digest(bytes);
+    }
+
+    public static byte[] of(@Nullable ClassInfo classInfo) {
+        if (classInfo == null) {
+            return ABSENT;
+        }
+
+        MessageDigest digest = create();
+        update(digest, classInfo.getClassName());
+        update(digest, classInfo.getSuperClass());
+        String[] interfaces = classInfo.getInterfaces();
+        update(digest, interfaces.length);
+        for (String anInterface : interfaces) {
+            update(digest, anInterface);
+        }
+        update(digest, classInfo.isInterface() ? 1 : 0);
+        return digest.digest();
+    }
+
+    public static void update(MessageDigest digest, int value) {
+        digest.update((byte) (value >>> 24));
+        digest.update((byte) (value >>> 16));
+        digest.update((byte) (value >>> 8));
+        digest.update((byte) value);
+    }
+
+    public static void update(MessageDigest digest, @Nullable String value) {
+        if (value == null) {
+            update(digest, -1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        update(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    public static String toHex(byte[] digest) {
+        StringBuilder builder = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package org.quiltmc.chasm.internal.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.chasm.api.util.ClassInfo;
+import org.quiltmc.chasm.api.util.Context;
+
+/**
+ * A {@link Context} that can remember every query made to it, along with a digest of the answer.
+ * This allows checking later whether a result computed using this context is still valid.
+ */
+public class RecordingContext implements Context {
+    private final Context parent;
+
+    private volatile @Nullable Recording recording;
+
+    public RecordingContext(Context parent) {
+        this.parent = parent;
+    }
+
+    public Context getParent() {
+        return parent;
+    }
+
+    public void startRecording() {
+        recording = new Recording();
+    }
+
+    public Recording stopRecording() {
+        Recording recording = this.recording;
+        if (recording == null) {
+            throw new IllegalStateException("Not recording");
+        }
+        this.recording = null;
+        return recording;
+    }
+
+    @Override
+    public @Nullable ClassInfo getClassInfo(String className) {
+        ClassInfo classInfo = parent.getClassInfo(className);
+
+        Recording recording = this.recording;
+        if (recording != null) {
+            recording.classInfos.computeIfAbsent(className, name -> Digests.of(classInfo));
+        }
+
+        return classInfo;
+    }
+
+    @Override
+    public byte @Nullable [] readFile(String path) {
+        byte[] bytes = parent.readFile(path);
+
+        Recording recording = this.recording;
+        if (recording != null) {
+            recording.files.computeIfAbsent(path, p -> Digests.of(bytes));
+        }
+
+        return bytes;
+    }
+
+    /**
+     * The queries made to a {@link RecordingContext}, mapped to the digests of their answers.
+     */
+    public static class Recording {
+        private final Map<String, byte[]> classInfos = new ConcurrentHashMap<>();
+        private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+
+        public Map<String, byte[]> getClassInfos() {
+            return Collections.unmodifiableMap(classInfos);
+        }
+
+        public Map<String, byte[]> getFiles() {
+            return Collections.unmodifiableMap(files);
+        }
+    }
+}
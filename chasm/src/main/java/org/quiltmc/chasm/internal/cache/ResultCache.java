@@ -0,0 +1,307 @@
+package org.quiltmc.chasm.internal.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.util.CacheableMetadata;
+import org.quiltmc.chasm.api.util.Context;
+import org.quiltmc.chasm.internal.ClassData;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
+/**
+ * Stores the results of processing runs in a directory, keyed by the digest of their inputs.
+ *
+ * <p>Besides the inputs, every entry contains the {@link Context} queries made during its run.
+ * An entry is only used if the context still gives the same answers to all of them.
+ *
+ * <p>The directory holds at most a fixed number of entries. Whenever an entry is stored, the entries that were
+ * least recently stored or loaded are deleted beyond that number.
+ */
+public class ResultCache {
+    private static final int MAGIC = 0x4348534D;
+    private static final int VERSION = 1;
+
+    private static final byte CLASS_INFO = 0;
+    private static final byte FILE = 1;
+
+    private static final String ENTRY_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final Context context;
+    private final int maxEntries;
+
+    /**
+     * Creates a cache in the given directory.
+     *
+     * @param directory The directory to store entries in.
+     * @param context The context used to validate entries, which must not be a recording context.
+     * @param maxEntries The maximum number of entries kept in the directory.
+     */
+    public ResultCache(Path directory, Context context, int maxEntries) {
+        this.directory = directory;
+        this.context = context;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Computes the key of a processing run.
+     * Only class metadata that implements {@link CacheableMetadata} is part of the key.
+     *
+     * <p>The key includes the implementation version of Chasm, so entries of other releases aren't used.
+     * Builds without a version in their manifest, like snapshots run from a class directory, share their entries.
+     *
+     * @param coalesceSlices Whether slice replacements are coalesced.
+     * @param reuseUnmodified Whether unmodified classes and methods keep their original bytes.
+     * @return The key, or {@code null} if the given transformers don't support caching.
+     */
+    public static byte @Nullable [] computeKey(List<ClassData> classes, List<Transformer> transformers,
+                                               boolean coalesceSlices, boolean reuseUnmodified) {
+        MessageDigest digest = Digests.create();
+        Digests.update(digest, VERSION);
+        Digests.update(digest, ResultCache.class.getPackage().getImplementationVersion());
+        Digests.update(digest, (coalesceSlices ? 1 : 0) | (reuseUnmodified ? 2 : 0));
+
+        Digests.update(digest, transformers.size());
+        for (Transformer transformer : transformers) {
+            String cacheKey = transformer.getCacheKey();
+            if (cacheKey == null) {
+                return null;
+            }
+
+            Digests.update(digest, transformer.getId());
+            Digests.update(digest, cacheKey);
+        }
+
+        Digests.update(digest, classes.size());
+        for (ClassData classData : classes) {
+            digest.update(Digests.of(classData.getClassBytes()));
+            updateMetadata(digest, classData.getMetadata());
+        }
+
+        return digest.digest();
+    }
+
+    private static void updateMetadata(MessageDigest digest, Metadata metadata) {
+        // Types are sorted by name, since the order of the metadata isn't stable
+        List<Class<?>> types = new ArrayList<>();
+        for (Class<?> type : metadata.getTypes()) {
+            if (metadata.get(type) instanceof CacheableMetadata) {
+                types.add(type);
+            }
+        }
+        types.sort(Comparator.comparing(Class::getName));
+
+        Digests.update(digest, types.size());
+        for (Class<?> type : types) {
+            Digests.update(digest, type.getName());
+            Digests.update(digest, ((CacheableMetadata) metadata.get(type)).getCacheKey());
+        }
+    }
+
+    /**
+     * Loads the entry with the given key, if it exists and is still valid.
+     *
+     * @return The cached results in their original order, or {@code null} if there is no valid entry.
+     */
+    public @Nullable List<CachedResult> load(byte[] key) throws IOException {
+        Path file = getFile(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                return null;
+            }
+
+            int dependencyCount = input.readInt();
+            for (int i = 0; i < dependencyCount; i++) {
+                byte kind = input.readByte();
+                String name = input.readUTF();
+                byte[] expected = new byte[input.readUnsignedByte()];
+                input.readFully(expected);
+
+                byte[] actual;
+                if (kind == CLASS_INFO) {
+                    actual = Digests.of(context.getClassInfo(name));
+                } else if (kind == FILE) {
+                    actual = Digests.of(context.readFile(name));
+                } else {
+                    return null;
+                }
+
+                if (!Arrays.equals(expected, actual)) {
+                    return null;
+                }
+            }
+
+            // Mark the entry as recently used, so it is evicted last
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException ignored) {
+                // Only affects which entries are evicted first
+            }
+
+            int resultCount = input.readInt();
+            List<CachedResult> results = new ArrayList<>(resultCount);
+            for (int i = 0; i < resultCount; i++) {
+                ClassResult.Type type = ClassResult.Type.values()[input.readUnsignedByte()];
+                int index = input.readInt();
+                int source = input.readInt();
+
+                byte[] classBytes = null;
+                if (type == ClassResult.Type.MODIFIED || type == ClassResult.Type.ADDED) {
+                    classBytes = new byte[input.readInt()];
+                    input.readFully(classBytes);
+                }
+
+                results.add(new CachedResult(type, index, source, classBytes));
+            }
+
+            return results;
+        }
+    }
+
+    /**
+     * Stores the results of a processing run, replacing any existing entry with the same key.
+     */
+    public void store(byte[] key, RecordingContext.Recording recording, List<CachedResult> results)
+            throws IOException {
+        Files.createDirectories(directory);
+        Path file = getFile(key);
+        Path temp = Files.createTempFile(directory, "entry", ".tmp");
+
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+
+                Map<String, byte[]> classInfos = recording.getClassInfos();
+                Map<String, byte[]> files = recording.getFiles();
+                output.writeInt(classInfos.size() + files.size());
+                writeDependencies(output, CLASS_INFO, classInfos);
+                writeDependencies(output, FILE, files);
+
+                output.writeInt(results.size());
+                for (CachedResult result : results) {
+                    output.writeByte(result.getType().ordinal());
+                    output.writeInt(result.getIndex());
+                    output.writeInt(result.getSource());
+
+                    byte[] classBytes = result.getClassBytes();
+                    if (classBytes != null) {
+                        output.writeInt(classBytes.length);
+                        output.write(classBytes);
+                    }
+                }
+            }
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        evict(file);
+    }
+
+    /**
+     * Deletes the least recently used entries beyond the maximum number of entries, keeping the given one.
+     */
+    private void evict(Path stored) throws IOException {
+        List<Path> entries = new ArrayList<>();
+        Map<Path, FileTime> times = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+            for (Path entry : stream) {
+                if (!entry.equals(stored)) {
+                    entries.add(entry);
+                    times.put(entry, Files.getLastModifiedTime(entry));
+                }
+            }
+        }
+
+        int kept = maxEntries - 1;
+        if (entries.size() <= kept) {
+            return;
+        }
+
+        entries.sort(Comparator.comparing(times::get, Comparator.reverseOrder()));
+        for (Path entry : entries.subList(kept, entries.size())) {
+            Files.deleteIfExists(entry);
+        }
+    }
+
+    private static void writeDependencies(DataOutputStream output, byte kind, Map<String, byte[]> dependencies)
+            throws IOException {
+        for (Map.Entry<String, byte[]> entry : dependencies.entrySet()) {
+            output.writeByte(kind);
+            output.writeUTF(entry.getKey());
+            output.writeByte(entry.getValue().length);
+            output.write(entry.getValue());
+        }
+    }
+
+    private Path getFile(byte[] key) {
+        return directory.resolve(Digests.toHex(key) + ENTRY_SUFFIX);
+    }
+
+    /**
+     * A single {@link ClassResult} as stored in the cache.
+     * Unmodified and removed classes only store the index of their input class.
+     */
+    public static class CachedResult {
+        private final ClassResult.Type type;
+        private final int index;
+        private final int source;
+        private final byte @Nullable [] classBytes;
+
+        /**
+         * Creates a cached result.
+         *
+         * @param type The type of the result.
+         * @param index The index of the class in the class list, or -1 for removed classes.
+         * @param source The index of the input class, or -1 for added classes.
+         * @param classBytes The written class, only for modified and added classes.
+         */
+        public CachedResult(ClassResult.Type type, int index, int source, byte @Nullable [] classBytes) {
+            this.type = type;
+            this.index = index;
+            this.source = source;
+            this.classBytes = classBytes;
+        }
+
+        public ClassResult.Type getType() {
+            return type;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getSource() {
+            return source;
+        }
+
+        public byte @Nullable [] getClassBytes() {
+            return classBytes;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+@ApiStatus.Internal
+package org.quiltmc.chasm.internal.cache;
+
+import org.jetbrains.annotations.ApiStatus;
\ No newline at end of file
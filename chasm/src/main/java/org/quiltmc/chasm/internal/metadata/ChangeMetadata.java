@@ -0,0 +1,137 @@
+package org.quiltmc.chasm.internal.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.objectweb.asm.Opcodes;
+import org.quiltmc.chasm.internal.tree.ClassNode;
+import org.quiltmc.chasm.internal.util.NodeConstants;
+import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.MapNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+
+/**
+ * Tracks the changes made to a class after it was converted from a {@link ClassNode} into a modifiable tree.
+ *
+ * <p>Every node on the path to a replaced node is marked as modified, including the class itself.
+ * Nodes that aren't marked and existed in the original tree are therefore unchanged.
+ */
+public class ChangeMetadata {
+    private final ClassNode source;
+    private final Set<Node> modified = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Node, Integer> originalMethods = new IdentityHashMap<>();
+    private final Map<Node, Integer> originalCode = new IdentityHashMap<>();
+    private final List<Map<String, Node>> originalMethodEntries = new ArrayList<>();
+    private boolean rewritten = false;
+
+    /**
+     * Creates the change metadata for the given class, which must not have been modified yet.
+     */
+    public ChangeMetadata(ClassNode source) {
+        this.source = source;
+
+        ListNode methods = NodeUtils.getAsList(source, NodeConstants.METHODS);
+        if (methods != null) {
+            List<Node> entries = methods.getEntries();
+            for (int i = 0; i < entries.size(); i++) {
+                MapNode method = NodeUtils.asMap(entries.get(i));
+                originalMethods.put(method, i);
+                originalMethodEntries.add(new HashMap<>(method.getEntries()));
+
+                Node code = method.get(NodeConstants.CODE);
+                if (code != null) {
+                    originalCode.put(code, i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link ClassNode} the class was created from.
+     */
+    public ClassNode getSource() {
+        return source;
+    }
+
+    public void markModified(Node node) {
+        modified.add(node);
+    }
+
+    public boolean isModified(Node node) {
+        return modified.contains(node);
+    }
+
+    /**
+     * Marks that nodes of the class may have been edited in place, so none of them can be assumed to be unchanged.
+     * No method or code of the source class is reused afterwards.
+     */
+    public void markRewritten() {
+        rewritten = true;
+    }
+
+    /**
+     * Returns the index of the given method in the class file of the source class,
+     * or -1 if it isn't an unmodified method of the source class.
+     */
+    public int getOriginalMethodIndex(Node method) {
+        if (rewritten || modified.contains(method)) {
+            return -1;
+        }
+
+        Integer index = originalMethods.get(method);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the index of the method in the class file of the source class that has the same code as the given one,
+     * or -1 if there is none.
+     * The code is only considered the same if its locals and parameters, as well as the static flag, are unchanged.
+     */
+    public int getOriginalCodeIndex(Node method) {
+        if (rewritten || !(method instanceof MapNode)) {
+            return -1;
+        }
+
+        MapNode methodNode = (MapNode) method;
+        Node code = methodNode.get(NodeConstants.CODE);
+        Integer index = code == null ? null : originalCode.get(code);
+        if (index == null || modified.contains(code)) {
+            return -1;
+        }
+
+        Map<String, Node> original = originalMethodEntries.get(index);
+        for (String key : new String[] {NodeConstants.LOCALS, NodeConstants.PARAMETERS}) {
+            Node node = methodNode.get(key);
+            if (node != original.get(key) || modified.contains(node)) {
+                return -1;
+            }
+        }
+
+        // The static flag determines whether the code has an implicit this local
+        int access = NodeUtils.getAsInt(methodNode, NodeConstants.ACCESS);
+        int originalAccess = NodeUtils.asInt(original.get(NodeConstants.ACCESS));
+        if ((access & Opcodes.ACC_STATIC) != (originalAccess & Opcodes.ACC_STATIC)) {
+            return -1;
+        }
+
+        return index;
+    }
+
+    /**
+     * Checks whether the given class node is still identical to the class it was read from.
+     */
+    public static boolean isUnmodified(Node classNode) {
+        if (classNode instanceof ClassNode) {
+            return true;
+        }
+
+        ChangeMetadata changes = classNode.getMetadata().get(ChangeMetadata.class);
+        return changes != null && !changes.isModified(classNode);
+    }
+}
@@ -1,7 +1,7 @@
 package org.quiltmc.chasm.internal.metadata;
 
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.NoSuchElementException;
 import java.util.Objects;
 
 import org.jetbrains.annotations.NotNull;
@@ -9,15 +9,22 @@ import org.jetbrains.annotations.NotNull;
 public class PathMetadata implements Iterable<PathMetadata.Entry> {
     private final PathMetadata parent;
     private final Entry entry;
+    private final int size;
+    private final int hash;
 
     public PathMetadata(PathMetadata parent, String entry) {
-        this.parent = parent;
-        this.entry = new Entry(entry);
+        this(parent, new Entry(entry));
     }
 
     public PathMetadata(PathMetadata parent, int entry) {
+        this(parent, new Entry(entry));
+    }
+
+    private PathMetadata(PathMetadata parent, Entry entry) {
         this.parent = parent;
-        this.entry = new Entry(entry);
+        this.entry = entry;
+        this.size = parent == null ? 1 : parent.size + 1;
+        this.hash = (parent == null ? 0 : parent.hash) * 31 + entry.hashCode();
     }
 
     public PathMetadata getParent() {
@@ -43,11 +50,20 @@ public class PathMetadata implements Iterable<PathMetadata.Entry> {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (!(o instanceof PathMetadata)) {
             return false;
         }
         PathMetadata other = (PathMetadata) o;
-        return Objects.equals(entry, other.entry) && Objects.equals(parent, other.parent);
+        return hash == other.hash && size == other.size
+                && entry.equals(other.entry) && Objects.equals(parent, other.parent);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
     public boolean startsWith(PathMetadata other) {
@@ -64,11 +80,7 @@ public class PathMetadata implements Iterable<PathMetadata.Entry> {
     }
 
     public int getSize() {
-        if (parent == null) {
-            return 1;
-        }
-
-        return parent.getSize() + 1;
+        return size;
     }
 
     @Override
@@ -83,31 +95,16 @@ public class PathMetadata implements Iterable<PathMetadata.Entry> {
     @NotNull
     @Override
     public Iterator<Entry> iterator() {
-        return new Iterator<Entry>() {
-            Iterator<Entry> parentIter = parent == null ? null : parent.iterator();
-            boolean isConsumed = false;
-
-            @Override
-            public boolean hasNext() {
-                return parentIter != null && parentIter.hasNext() || !isConsumed;
-            }
-
-            @Override
-            public Entry next() {
-                if (parentIter != null && parentIter.hasNext()) {
-                    return parentIter.next();
-                } else if (!isConsumed) {
-                    isConsumed = true;
-                    return entry;
-                }
+        Entry[] entries = new Entry[size];
+        for (PathMetadata current = this; current != null; current = current.parent) {
+            entries[current.size - 1] = current.entry;
+        }
 
-                throw new NoSuchElementException();
-            }
-        };
+        return Arrays.asList(entries).iterator();
     }
 
     public static class Entry {
-        private Object value;
+        private final Object value;
 
         public Entry(int value) {
             this.value = value;
@@ -133,14 +130,6 @@ public class PathMetadata implements Iterable<PathMetadata.Entry> {
             return (String) value;
         }
 
-        public void set(String value) {
-            this.value = value;
-        }
-
-        public void set(int value) {
-            this.value = value;
-        }
-
         @Override
         public String toString() {
             return value.toString();
@@ -160,7 +149,7 @@ public class PathMetadata implements Iterable<PathMetadata.Entry> {
 
         @Override
         public int hashCode() {
-            return Objects.hash(value);
+            return value.hashCode();
         }
     }
 }
@@ -0,0 +1,64 @@
+package org.quiltmc.chasm.internal.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.quiltmc.chasm.api.util.ClassStorage;
+
+/**
+ * Keeps classes compressed on the heap.
+ * Class files compress well, and inflating them is cheap compared to reading them into a tree.
+ */
+public class DeflateClassStorage implements ClassStorage {
+    @Override
+    public Supplier<byte[]> store(byte[] classBytes) {
+        byte[] compressed = deflate(classBytes);
+        int length = classBytes.length;
+        return () -> inflate(compressed, length);
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 2 + 16);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                output.write(buffer, 0, count);
+            }
+
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int length) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                int count = inflater.inflate(bytes, offset, length - offset);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new RuntimeException("Stored class is truncated");
+                }
+                offset += count;
+            }
+
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new RuntimeException("Stored class is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
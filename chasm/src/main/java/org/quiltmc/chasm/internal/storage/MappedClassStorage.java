@@ -0,0 +1,67 @@
+package org.quiltmc.chasm.internal.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+import org.quiltmc.chasm.api.util.ClassStorage;
+
+/**
+ * Writes classes into a temporary file, which is mapped into memory in segments.
+ * The stored classes then live in the page cache instead of the heap, and are only copied out when needed.
+ */
+public class MappedClassStorage implements ClassStorage {
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+
+    private MappedByteBuffer segment;
+    private long fileSize = 0;
+
+    public MappedClassStorage(Path directory) throws IOException {
+        this.file = Files.createTempFile(directory, "classes", ".bin");
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    @Override
+    public synchronized Supplier<byte[]> store(byte[] classBytes) {
+        if (segment == null || segment.remaining() < classBytes.length) {
+            // Classes larger than a segment get a segment of their own
+            int size = Math.max(SEGMENT_SIZE, classBytes.length);
+            try {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, fileSize, size);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to map class storage " + file, e);
+            }
+            fileSize += size;
+        }
+
+        int offset = segment.position();
+        segment.put(classBytes);
+
+        ByteBuffer stored = segment;
+        int length = classBytes.length;
+        return () -> {
+            ByteBuffer view = stored.duplicate();
+            view.position(offset);
+
+            byte[] bytes = new byte[length];
+            view.get(bytes);
+            return bytes;
+        };
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        segment = null;
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+}
@@ -2,11 +2,16 @@ package org.quiltmc.chasm.internal.transformer;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
+import org.jetbrains.annotations.Nullable;
 import org.quiltmc.chasm.api.Transformation;
 import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.util.ClassFilter;
 import org.quiltmc.chasm.api.util.Context;
 import org.quiltmc.chasm.internal.intrinsic.ChasmIntrinsics;
+import org.quiltmc.chasm.internal.util.NodeUtils;
 import org.quiltmc.chasm.lang.api.ast.Ast;
 import org.quiltmc.chasm.lang.api.ast.CallNode;
 import org.quiltmc.chasm.lang.api.ast.LambdaNode;
@@ -14,6 +19,7 @@ import org.quiltmc.chasm.lang.api.ast.ListNode;
 import org.quiltmc.chasm.lang.api.ast.MapNode;
 import org.quiltmc.chasm.lang.api.ast.Node;
 import org.quiltmc.chasm.lang.api.eval.Evaluator;
+import org.quiltmc.chasm.lang.internal.render.Renderer;
 
 public class ChasmLangTransformer implements Transformer {
     private final Node parsed;
@@ -22,10 +28,52 @@ public class ChasmLangTransformer implements Transformer {
 
     private final Context context;
 
+    private final @Nullable ClassFilter classFilter;
+
     public ChasmLangTransformer(String id, Node parsed, Context context) {
         this.id = id;
         this.parsed = parsed;
         this.context = context;
+        this.classFilter = readClassFilter(parsed, context);
+    }
+
+    /**
+     * Reads the optional {@code filter: { classes: [...], packages: [...] }} entry of the root map.
+     * The filter is evaluated on its own, so it can't refer to the classes or other entries of the transformer.
+     */
+    private static @Nullable ClassFilter readClassFilter(Node parsed, Context context) {
+        if (!(parsed instanceof MapNode)) {
+            return null;
+        }
+
+        Node filterExpression = ((MapNode) parsed).get("filter");
+        if (filterExpression == null) {
+            return null;
+        }
+
+        Node filter = filterExpression.evaluate(ChasmIntrinsics.makeEvaluator(filterExpression, context));
+        if (!(filter instanceof MapNode)) {
+            throw new RuntimeException("Transformer filter must be a map");
+        }
+
+        return ClassFilter.of(readNames((MapNode) filter, "classes"), readNames((MapNode) filter, "packages"));
+    }
+
+    private static List<String> readNames(MapNode filter, String key) {
+        Node names = filter.get(key);
+        if (names == null) {
+            return Collections.emptyList();
+        }
+        if (!(names instanceof ListNode)) {
+            throw new RuntimeException("Transformer filter entry \"" + key + "\" must be a list of strings");
+        }
+
+        List<String> result = new ArrayList<>();
+        for (Node name : ((ListNode) names).getEntries()) {
+            result.add(NodeUtils.asString(name));
+        }
+
+        return result;
     }
 
     @Override
@@ -57,4 +105,14 @@ public class ChasmLangTransformer implements Transformer {
     public String getId() {
         return id;
     }
+
+    @Override
+    public @Nullable ClassFilter getClassFilter() {
+        return classFilter;
+    }
+
+    @Override
+    public String getCacheKey() {
+        return Renderer.builder().build().render(parsed);
+    }
 }
@@ -2,6 +2,7 @@ package org.quiltmc.chasm.internal.tree;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.objectweb.asm.ClassReader;
 import org.quiltmc.chasm.api.util.Context;
@@ -16,12 +17,17 @@ import org.quiltmc.chasm.lang.api.eval.Evaluator;
 import org.quiltmc.chasm.lang.api.eval.Resolver;
 
 public class ClassNode extends MapNode {
-    private final ClassReader reader;
-
-    public ClassNode(ClassReader reader, Context context, int index) {
-        super(new LazyMap<>(getStaticEntries(reader),
-                () -> getLazyEntries(reader, context, index)));
-        this.reader = reader;
+    private final Supplier<byte[]> classBytes;
+
+    /**
+     * Creates a class node from the bytes returned by the given supplier.
+     * The bytes are loaded again whenever the lazy entries or the reader of this class are needed,
+     * so the node doesn't keep them alive.
+     */
+    public ClassNode(Supplier<byte[]> classBytes, Context context, int index) {
+        super(new LazyMap<>(getStaticEntries(new ClassReader(classBytes.get())),
+                () -> getLazyEntries(new ClassReader(classBytes.get()), context, index)));
+        this.classBytes = classBytes;
 
         PathMetadata root = new PathMetadata(null, index);
         PathInitializer.initialize(this, root);
@@ -62,8 +68,11 @@ public class ClassNode extends MapNode {
         return entries;
     }
 
+    /**
+     * Returns a new reader of the original class.
+     */
     public ClassReader getClassReader() {
-        return reader;
+        return new ClassReader(classBytes.get());
     }
 
     @Override
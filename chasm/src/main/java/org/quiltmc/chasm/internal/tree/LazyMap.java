@@ -23,7 +23,8 @@ public class LazyMap<K, V> implements Map<K, V> {
         return staticEntries;
     }
 
-    public Map<K, V> getLazyEntries() {
+    // Synchronized, so concurrently applied transformers all observe the same lazy entries
+    public synchronized Map<K, V> getLazyEntries() {
         Map<K, V> entries = lazyEntries.get();
 
         if (entries == null) {
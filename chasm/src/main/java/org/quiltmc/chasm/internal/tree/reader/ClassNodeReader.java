@@ -1,6 +1,22 @@
 package org.quiltmc.chasm.internal.tree.reader;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.MethodNode;
+import org.quiltmc.chasm.internal.metadata.ChangeMetadata;
 import org.quiltmc.chasm.internal.util.NodeConstants;
 import org.quiltmc.chasm.internal.util.NodeUtils;
 import org.quiltmc.chasm.lang.api.ast.ListNode;
@@ -10,25 +26,172 @@ import org.quiltmc.chasm.lang.api.ast.Node;
 public class ClassNodeReader {
     private final MapNode classNode;
 
+    private final @Nullable ClassReader source;
+    private final int methodCount;
+    // Positions of the copied methods and their indices in the source class, both ascending
+    private final int[] copiedPositions;
+    private final int[] copiedIndices;
+    // Per method: the index of the method in the source class whose code is reused, -1 otherwise
+    private final int[] codeSources;
+
     public ClassNodeReader(MapNode classNode) {
         this.classNode = classNode;
+
+        ChangeMetadata changes = classNode.getMetadata().get(ChangeMetadata.class);
+        ListNode methodListNode = NodeUtils.getAsList(classNode, NodeConstants.METHODS);
+        this.methodCount = methodListNode == null ? 0 : methodListNode.size();
+
+        int[] positions = new int[0];
+        int[] indices = new int[0];
+        int[] codeIndices = new int[methodCount];
+        Arrays.fill(codeIndices, -1);
+        boolean reused = false;
+        if (changes != null && methodListNode != null) {
+            List<Node> methods = methodListNode.getEntries();
+            int[] originalIndices = new int[methodCount];
+            for (int i = 0; i < methodCount; i++) {
+                originalIndices[i] = changes.getOriginalMethodIndex(methods.get(i));
+            }
+
+            // The source class is read in one pass, so copied methods must keep their original order
+            positions = longestIncreasingSubsequence(originalIndices);
+            indices = new int[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                indices[i] = originalIndices[positions[i]];
+            }
+
+            // The remaining methods can still reuse the original code and frames if they have any
+            Set<Integer> usedCode = new HashSet<>();
+            for (int i : indices) {
+                usedCode.add(i);
+            }
+            for (int i = 0; i < methodCount; i++) {
+                if (Arrays.binarySearch(positions, i) >= 0) {
+                    continue;
+                }
+
+                int codeIndex = changes.getOriginalCodeIndex(methods.get(i));
+                if (codeIndex >= 0 && usedCode.add(codeIndex)) {
+                    codeIndices[i] = codeIndex;
+                    reused = true;
+                }
+            }
+        }
+
+        // Reading the source class loads its bytes again, so it's only done if anything can be reused
+        ClassReader sourceReader = positions.length > 0 || reused ? changes.getSource().getClassReader() : null;
+        if (sourceReader != null && !hasSourceHeader(sourceReader)) {
+            sourceReader = null;
+            positions = new int[0];
+            indices = new int[0];
+            Arrays.fill(codeIndices, -1);
+        }
+
+        this.source = sourceReader;
+        this.copiedPositions = positions;
+        this.copiedIndices = indices;
+        this.codeSources = codeIndices;
     }
 
-    public void accept(ClassVisitor visitor) {
-        // visit
-        int version = NodeUtils.getAsInt(classNode, NodeConstants.VERSION);
-        int access = NodeUtils.getAsInt(classNode, NodeConstants.ACCESS);
-        String name = NodeUtils.getAsString(classNode, NodeConstants.NAME);
+    /**
+     * Returns the reader of the class that unmodified methods are copied from, or {@code null} if none are copied.
+     *
+     * <p>Methods are only copied verbatim if the visitor passed to {@link #accept(ClassVisitor)}
+     * is a {@link ClassWriter} created from this reader.
+     * Otherwise, they are visited as they appear in the source class.
+     */
+    public @Nullable ClassReader getCopySource() {
+        return copiedPositions.length > 0 ? source : null;
+    }
+
+    /**
+     * Checks whether any method keeps the frames of the source class.
+     * In that case, classes should be written using {@link #accept(ClassVisitor, Supplier)}
+     * with a visitor that doesn't compute frames.
+     */
+    public boolean reusesFrames() {
+        return source != null;
+    }
+
+    /**
+     * Copied methods keep their original frames, which are only valid if the class header is unchanged.
+     */
+    private boolean hasSourceHeader(ClassReader source) {
+        // Minor and major version, as passed to visit
+        if (NodeUtils.getAsInt(classNode, NodeConstants.VERSION) != source.readInt(4)) {
+            return false;
+        }
+
+        if (!source.getClassName().equals(NodeUtils.getAsString(classNode, NodeConstants.NAME))) {
+            return false;
+        }
 
-        String signature = NodeUtils.getAsString(classNode, NodeConstants.SIGNATURE);
         String superClass = NodeUtils.getAsString(classNode, NodeConstants.SUPER);
         superClass = superClass == null ? "java/lang/Object" : superClass;
+        String sourceSuperClass = source.getSuperName() == null ? "java/lang/Object" : source.getSuperName();
+        if (!sourceSuperClass.equals(superClass)) {
+            return false;
+        }
 
         ListNode interfacesNode = NodeUtils.getAsList(classNode, NodeConstants.INTERFACES);
         String[] interfaces = interfacesNode == null ? new String[0] :
                 interfacesNode.getEntries().stream().map(NodeUtils::asString).toArray(String[]::new);
+        return Arrays.equals(source.getInterfaces(), interfaces);
+    }
 
-        visitor.visit(version, access, name, signature, superClass, interfaces);
+    /**
+     * Returns the positions of a longest strictly increasing subsequence of the non-negative values.
+     */
+    private static int[] longestIncreasingSubsequence(int[] values) {
+        // tails[l] is the position of the smallest value ending a subsequence of length l + 1
+        int[] tails = new int[values.length];
+        int[] previous = new int[values.length];
+        int length = 0;
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] < 0) {
+                continue;
+            }
+
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            length = Math.max(length, low + 1);
+        }
+
+        int[] positions = new int[length];
+        for (int i = length - 1, current = length > 0 ? tails[length - 1] : -1; i >= 0; i--) {
+            positions[i] = current;
+            current = previous[current];
+        }
+
+        return positions;
+    }
+
+    public void accept(ClassVisitor visitor) {
+        accept(visitor, null);
+    }
+
+    /**
+     * Visits the class, computing frames and max values of all methods that don't reuse their original code
+     * with writers from the given supplier first.
+     * This allows writing the class with a visitor that doesn't compute any frames.
+     *
+     * @param frameWriter Creates writers that compute frames, or {@code null} if the visitor computes them.
+     */
+    public void accept(ClassVisitor visitor, @Nullable Supplier<ClassWriter> frameWriter) {
+        // visit
+        final String name = visitHeader(visitor);
 
         // visitSource
         visitSource(visitor);
@@ -77,19 +240,143 @@ public class ClassNodeReader {
         }
 
         // visitMethod
-        ListNode methodListNode = NodeUtils.getAsList(classNode, NodeConstants.METHODS);
-        if (methodListNode != null) {
-            for (Node node : methodListNode.getEntries()) {
-                MapNode methodNode = NodeUtils.asMap(node);
-                MethodNodeReader methodNodeReader = new MethodNodeReader(name, methodNode);
-                methodNodeReader.visitMethod(visitor);
-            }
+        MethodNode[] methods = createMethodNodes(name, frameWriter);
+        if (copiedPositions.length > 0) {
+            MethodCopier copier = new MethodCopier(visitor, methods);
+            source.accept(copier, 0);
+            visitMethods(visitor, methods, copier.nextMethod, methodCount);
+        } else {
+            visitMethods(visitor, methods, 0, methodCount);
         }
 
         // visitEnd
         visitor.visitEnd();
     }
 
+    private String visitHeader(ClassVisitor visitor) {
+        int version = NodeUtils.getAsInt(classNode, NodeConstants.VERSION);
+        int access = NodeUtils.getAsInt(classNode, NodeConstants.ACCESS);
+        String name = NodeUtils.getAsString(classNode, NodeConstants.NAME);
+
+        String signature = NodeUtils.getAsString(classNode, NodeConstants.SIGNATURE);
+        String superClass = NodeUtils.getAsString(classNode, NodeConstants.SUPER);
+        superClass = superClass == null ? "java/lang/Object" : superClass;
+
+        ListNode interfacesNode = NodeUtils.getAsList(classNode, NodeConstants.INTERFACES);
+        String[] interfaces = interfacesNode == null ? new String[0] :
+                interfacesNode.getEntries().stream().map(NodeUtils::asString).toArray(String[]::new);
+
+        visitor.visit(version, access, name, signature, superClass, interfaces);
+        return name;
+    }
+
+    /**
+     * Creates the ASM method nodes of all methods that aren't copied.
+     */
+    private MethodNode[] createMethodNodes(String className, @Nullable Supplier<ClassWriter> frameWriter) {
+        MethodNode[] methods = new MethodNode[methodCount];
+        if (methodCount == 0) {
+            return methods;
+        }
+
+        ListNode methodListNode = NodeUtils.getAsList(classNode, NodeConstants.METHODS);
+        for (int i = 0; i < methodCount; i++) {
+            if (Arrays.binarySearch(copiedPositions, i) < 0) {
+                MapNode methodNode = NodeUtils.asMap(methodListNode.get(i));
+                methods[i] = new MethodNodeReader(className, methodNode).createMethodNode();
+            }
+        }
+
+        // Reuse the original code, including frames and max values
+        Map<Integer, MethodNode> originalMethods = new HashMap<>();
+        for (int codeSource : codeSources) {
+            if (codeSource >= 0) {
+                originalMethods.put(codeSource, null);
+            }
+        }
+        if (!originalMethods.isEmpty()) {
+            source.accept(new ClassVisitor(Opcodes.ASM9) {
+                private int index = 0;
+
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                                 String[] exceptions) {
+                    int current = index++;
+                    if (!originalMethods.containsKey(current)) {
+                        return null;
+                    }
+
+                    MethodNode methodNode = new MethodNode(Opcodes.ASM9, access, name, descriptor, signature,
+                            exceptions);
+                    originalMethods.put(current, methodNode);
+                    return methodNode;
+                }
+            }, 0);
+
+            for (int i = 0; i < methodCount; i++) {
+                if (codeSources[i] >= 0) {
+                    copyCode(originalMethods.get(codeSources[i]), methods[i]);
+                }
+            }
+        }
+
+        if (frameWriter != null) {
+            computeFrames(methods, frameWriter.get());
+        }
+
+        return methods;
+    }
+
+    /**
+     * Computes the frames and max values of all methods with new code by writing them into a separate class.
+     */
+    private void computeFrames(MethodNode[] methods, ClassWriter frameWriter) {
+        List<Integer> positions = new ArrayList<>();
+        visitHeader(frameWriter);
+        for (int i = 0; i < methodCount; i++) {
+            if (methods[i] != null && codeSources[i] < 0 && methods[i].instructions.size() > 0) {
+                methods[i].accept(frameWriter);
+                positions.add(i);
+            }
+        }
+        frameWriter.visitEnd();
+
+        if (positions.isEmpty()) {
+            return;
+        }
+
+        List<MethodNode> computed = new ArrayList<>();
+        new ClassReader(frameWriter.toByteArray()).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                             String[] exceptions) {
+                MethodNode methodNode = new MethodNode(Opcodes.ASM9, access, name, descriptor, signature, exceptions);
+                computed.add(methodNode);
+                return methodNode;
+            }
+        }, 0);
+
+        for (int i = 0; i < positions.size(); i++) {
+            copyCode(computed.get(i), methods[positions.get(i)]);
+        }
+    }
+
+    private static void copyCode(MethodNode from, MethodNode to) {
+        to.instructions = from.instructions;
+        to.tryCatchBlocks = from.tryCatchBlocks;
+        to.maxStack = from.maxStack;
+        to.maxLocals = from.maxLocals;
+        to.localVariables = from.localVariables;
+        to.visibleLocalVariableAnnotations = from.visibleLocalVariableAnnotations;
+        to.invisibleLocalVariableAnnotations = from.invisibleLocalVariableAnnotations;
+    }
+
+    private void visitMethods(ClassVisitor visitor, MethodNode[] methods, int from, int to) {
+        for (int i = from; i < to; i++) {
+            methods[i].accept(visitor);
+        }
+    }
+
     private void visitInnerClasses(ClassVisitor visitor) {
         ListNode innerClassesListNode = NodeUtils.getAsList(classNode, NodeConstants.INNER_CLASSES);
         if (innerClassesListNode == null) {
@@ -168,4 +455,36 @@ public class ClassNodeReader {
 
         visitor.visitSource(source, debug);
     }
+
+    /**
+     * Visits the methods of the source class, passing on the copied ones and the methods in between them.
+     * If the visitor is a writer created from the source class, ASM copies the passed on methods as is.
+     */
+    private class MethodCopier extends ClassVisitor {
+        private final ClassVisitor visitor;
+        private final MethodNode[] methods;
+        private int originalIndex = 0;
+        private int nextCopy = 0;
+        private int nextMethod = 0;
+
+        MethodCopier(ClassVisitor visitor, MethodNode[] methods) {
+            super(Opcodes.ASM9);
+            this.visitor = visitor;
+            this.methods = methods;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                         String[] exceptions) {
+            int index = originalIndex++;
+            if (nextCopy == copiedIndices.length || copiedIndices[nextCopy] != index) {
+                return null;
+            }
+
+            int position = copiedPositions[nextCopy++];
+            visitMethods(visitor, methods, nextMethod, position);
+            nextMethod = position + 1;
+            return visitor.visitMethod(access, name, descriptor, signature, exceptions);
+        }
+    }
 }
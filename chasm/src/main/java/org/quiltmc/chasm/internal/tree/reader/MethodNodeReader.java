@@ -600,6 +600,13 @@ public class MethodNodeReader {
     }
 
     public void visitMethod(ClassVisitor visitor) {
+        createMethodNode().accept(visitor);
+    }
+
+    /**
+     * Converts the method into an ASM method node, without frames or max values.
+     */
+    public MethodNode createMethodNode() {
         int access = NodeUtils.getAsInt(methodNode, NodeConstants.ACCESS);
         String name = NodeUtils.getAsString(methodNode, NodeConstants.NAME);
 
@@ -661,6 +668,6 @@ public class MethodNodeReader {
 
         addLocalVariableDebugInfo();
 
-        outputMethodNode.accept(visitor);
+        return outputMethodNode;
     }
 }
@@ -2,27 +2,38 @@ package org.quiltmc.chasm.internal.util;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.chasm.api.ChasmProcessor;
 import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.util.ClassOrigin;
 import org.quiltmc.chasm.api.util.Context;
 import org.quiltmc.chasm.internal.transformer.ChasmLangTransformer;
 import org.quiltmc.chasm.lang.api.ast.Node;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
 
 public class ChasmEnvironment implements Closeable {
     private final Context context;
 
     private final List<Path> rootDirectories = new ArrayList<>();
+    // The jar or directory each root directory belongs to
+    private final Map<Path, Path> classpathEntries = new HashMap<>();
 
     private final List<Closeable> toClose = new ArrayList<>();
 
@@ -38,10 +49,14 @@ public class ChasmEnvironment implements Closeable {
     public void addToClasspath(Path path) throws IOException {
         if (Files.isRegularFile(path) && path.toString().endsWith(".jar")) {
             FileSystem fileSystem = FileSystems.newFileSystem(path, (ClassLoader) null);
-            fileSystem.getRootDirectories().forEach(rootDirectories::add);
+            for (Path rootDirectory : fileSystem.getRootDirectories()) {
+                rootDirectories.add(rootDirectory);
+                classpathEntries.put(rootDirectory, path);
+            }
             toClose.add(fileSystem);
         } else if (Files.isDirectory(path)) {
             rootDirectories.add(path);
+            classpathEntries.put(path, path);
         } else {
             throw new IllegalArgumentException("Path must be either jar or directory: " + path);
         }
@@ -73,12 +88,85 @@ public class ChasmEnvironment implements Closeable {
         return transformers.values();
     }
 
-    public void collectClasses() {
-        for (Path rootDirectory : rootDirectories) {
+    /**
+     * Adds all classes on the classpath to the given processor, sequentially.
+     *
+     * @see #collectClasses(ChasmProcessor, Executor)
+     */
+    public void collectClasses(ChasmProcessor processor) throws IOException {
+        collectClasses(processor, null);
+    }
 
+    /**
+     * Adds all classes on the classpath to the given processor.
+     * Each class is tagged with a {@link ClassOrigin} describing where it was read from.
+     *
+     * <p>Classpath entries are scanned and their class files are read using the given executor, if any.
+     * The classes are added in classpath order, sorted by path within each entry,
+     * so the order doesn't depend on the executor.
+     * Class files in {@code META-INF} and module descriptors are skipped.
+     *
+     * @param processor The processor to add the classes to.
+     * @param executor The executor to read classes with, or {@code null} to read them on the calling thread.
+     */
+    public void collectClasses(ChasmProcessor processor, @Nullable Executor executor) throws IOException {
+        try {
+            List<List<Path>> classFiles = new ArrayList<>();
+            for (int i = 0; i < rootDirectories.size(); i++) {
+                classFiles.add(null);
+            }
+            ParallelUtils.forEach(executor, rootDirectories.size(), index -> {
+                classFiles.set(index, findClassFiles(rootDirectories.get(index)));
+            });
+
+            for (int i = 0; i < rootDirectories.size(); i++) {
+                Path rootDirectory = rootDirectories.get(i);
+                List<Path> files = classFiles.get(i);
+
+                byte[][] classBytes = new byte[files.size()][];
+                ParallelUtils.forEach(executor, files.size(), index -> {
+                    try {
+                        classBytes[index] = Files.readAllBytes(files.get(index));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                for (int j = 0; j < files.size(); j++) {
+                    Metadata metadata = new Metadata();
+                    metadata.put(ClassOrigin.class, new ClassOrigin(
+                            classpathEntries.get(rootDirectory), getEntryPath(rootDirectory, files.get(j))));
+                    processor.addClass(classBytes[j], metadata);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
 
+    private static List<Path> findClassFiles(Path rootDirectory) {
+        try (Stream<Path> fileStream = Files.walk(rootDirectory)) {
+            return fileStream
+                    .filter(path -> {
+                        String entryPath = getEntryPath(rootDirectory, path);
+                        return entryPath.endsWith(".class")
+                                && !entryPath.startsWith("META-INF/")
+                                && !entryPath.endsWith("module-info.class")
+                                && Files.isRegularFile(path);
+                    })
+                    .sorted(Comparator.comparing(path -> getEntryPath(rootDirectory, path)))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String getEntryPath(Path rootDirectory, Path path) {
+        // Jar file systems and directories may use different separators
+        String separator = rootDirectory.getFileSystem().getSeparator();
+        return rootDirectory.relativize(path).toString().replace(separator, "/");
+    }
+
     private int getJavaVersion() {
         String versionString = System.getProperty("java.version");
         String[] parts = versionString.split("\\.");
@@ -1,5 +1,9 @@
 package org.quiltmc.chasm.internal.util;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 import org.objectweb.asm.ConstantDynamic;
 import org.objectweb.asm.Handle;
 import org.objectweb.asm.Type;
@@ -12,6 +16,7 @@ import org.quiltmc.chasm.lang.api.ast.MapNode;
 import org.quiltmc.chasm.lang.api.ast.Node;
 import org.quiltmc.chasm.lang.api.ast.NullNode;
 import org.quiltmc.chasm.lang.api.ast.StringNode;
+import org.quiltmc.chasm.lang.api.ast.ValueNode;
 import org.quiltmc.chasm.lang.internal.Assert;
 
 public class NodeUtils {
@@ -100,6 +105,56 @@ public class NodeUtils {
         return asLong(node).intValue();
     }
 
+    /**
+     * Checks whether two nodes represent the same value, ignoring their metadata.
+     * Nodes other than maps, lists and literals are only equal if they are the same instance.
+     */
+    public static boolean contentEquals(Node first, Node second) {
+        if (first == second) {
+            return true;
+        }
+
+        if (first instanceof ListNode && second instanceof ListNode) {
+            List<Node> firstEntries = ((ListNode) first).getEntries();
+            List<Node> secondEntries = ((ListNode) second).getEntries();
+            if (firstEntries.size() != secondEntries.size()) {
+                return false;
+            }
+
+            for (int i = 0; i < firstEntries.size(); i++) {
+                if (!contentEquals(firstEntries.get(i), secondEntries.get(i))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        if (first instanceof MapNode && second instanceof MapNode) {
+            Map<String, Node> firstEntries = ((MapNode) first).getEntries();
+            Map<String, Node> secondEntries = ((MapNode) second).getEntries();
+            if (firstEntries.size() != secondEntries.size()) {
+                return false;
+            }
+
+            for (Map.Entry<String, Node> entry : firstEntries.entrySet()) {
+                Node other = secondEntries.get(entry.getKey());
+                if (other == null || !contentEquals(entry.getValue(), other)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        if (first instanceof ValueNode && second instanceof ValueNode) {
+            return first.getClass() == second.getClass()
+                    && Objects.equals(((ValueNode<?>) first).getValue(), ((ValueNode<?>) second).getValue());
+        }
+
+        return false;
+    }
+
     public static IllegalStateException createWrongTypeException(Node node, Class<?> clazz) {
         return new IllegalStateException("Expected " + clazz + " but found " + node);
     }
@@ -0,0 +1,67 @@
+package org.quiltmc.chasm.internal.util;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Passes values that are completed in any order, possibly concurrently, on to a consumer in the order of their
+ * indices.
+ *
+ * <p>The consumer is never called concurrently, and never while the lock of this releaser is held.
+ * A completing thread that finds another thread passing on values leaves the new value to it and returns
+ * immediately, so threads only wait for the consumer if they pass on values themselves.
+ */
+public class OrderedReleaser<T> {
+    private final Object[] values;
+    private final ObjIntConsumer<T> consumer;
+    private int released = 0;
+    private boolean releasing = false;
+
+    public OrderedReleaser(int size, ObjIntConsumer<T> consumer) {
+        this.values = new Object[size];
+        this.consumer = consumer;
+    }
+
+    /**
+     * Completes the value with the given index, and passes on all values that are ready to be passed on,
+     * unless another thread is already doing so.
+     */
+    public void complete(int index, T value) {
+        synchronized (this) {
+            values[index] = value;
+            if (releasing) {
+                return;
+            }
+            releasing = true;
+        }
+
+        release();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void release() {
+        while (true) {
+            int start;
+            int end;
+            synchronized (this) {
+                start = released;
+                end = start;
+                while (end < values.length && values[end] != null) {
+                    end++;
+                }
+
+                if (start == end) {
+                    releasing = false;
+                    return;
+                }
+                released = end;
+            }
+
+            // Only this thread accesses released values, so they are passed on without holding the lock
+            for (int i = start; i < end; i++) {
+                T value = (T) values[i];
+                values[i] = null;
+                consumer.accept(value, i);
+            }
+        }
+    }
+}
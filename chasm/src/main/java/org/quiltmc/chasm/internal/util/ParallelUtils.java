@@ -0,0 +1,74 @@
+package org.quiltmc.chasm.internal.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Runs independent actions either sequentially or on an {@link Executor}, with the same observable result.
+ */
+public class ParallelUtils {
+    private ParallelUtils() {
+    }
+
+    /**
+     * Runs the given action once for every index in {@code [0, count)}.
+     * If an executor is given, the actions are submitted to it and this method blocks until all of them completed.
+     * Otherwise, the actions are run sequentially on the calling thread.
+     *
+     * <p>If any action fails, the exception of the lowest failing index is rethrown.
+     */
+    public static void forEach(@Nullable Executor executor, int count, IntConsumer action) {
+        if (executor == null || count <= 1) {
+            for (int i = 0; i < count; i++) {
+                action.accept(i);
+            }
+            return;
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(CompletableFuture.runAsync(() -> action.accept(index), executor));
+        }
+
+        join(futures);
+    }
+
+    private static void join(List<CompletableFuture<Void>> futures) {
+        RuntimeException failure = null;
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = unwrap(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the exception that caused the given {@link CompletionException},
+     * rethrowing errors and keeping the wrapper for checked exceptions.
+     */
+    public static RuntimeException unwrap(CompletionException exception) {
+        Throwable cause = exception.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return exception;
+    }
+}
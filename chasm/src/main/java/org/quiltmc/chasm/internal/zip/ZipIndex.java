@@ -0,0 +1,212 @@
+package org.quiltmc.chasm.internal.zip;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reads the central directory of a zip file, which allows reading the stored data of its entries
+ * without decompressing it.
+ */
+public class ZipIndex implements Closeable {
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private final FileChannel channel;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public ZipIndex(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        try {
+            readCentralDirectory();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public @Nullable Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * Reads the data of the given entry as it is stored in the file.
+     * This method may be called concurrently.
+     */
+    public byte[] readStoredData(Entry entry) throws IOException {
+        ByteBuffer header = read(entry.localHeaderOffset, 30);
+        if (header.getInt(0) != LOCAL_SIGNATURE) {
+            throw new IOException("Invalid local header for " + entry.name);
+        }
+
+        long dataOffset = entry.localHeaderOffset + 30
+                + Short.toUnsignedInt(header.getShort(26)) + Short.toUnsignedInt(header.getShort(28));
+        if (entry.compressedSize > Integer.MAX_VALUE) {
+            throw new IOException("Entry too large: " + entry.name);
+        }
+
+        return read(dataOffset, (int) entry.compressedSize).array();
+    }
+
+    private void readCentralDirectory() throws IOException {
+        long fileSize = channel.size();
+        int tailSize = (int) Math.min(fileSize, END_SIZE + MAX_COMMENT_SIZE);
+        ByteBuffer tail = read(fileSize - tailSize, tailSize);
+
+        int endOffset = -1;
+        for (int i = tailSize - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE) {
+                endOffset = i;
+                break;
+            }
+        }
+        if (endOffset < 0) {
+            throw new IOException("Not a zip file");
+        }
+
+        long entryCount = Short.toUnsignedInt(tail.getShort(endOffset + 10));
+        long directorySize = Integer.toUnsignedLong(tail.getInt(endOffset + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(endOffset + 16));
+
+        long endPosition = fileSize - tailSize + endOffset;
+        if (endPosition >= ZIP64_LOCATOR_SIZE) {
+            ByteBuffer locator = read(endPosition - ZIP64_LOCATOR_SIZE, ZIP64_LOCATOR_SIZE);
+            if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+                ByteBuffer end = read(locator.getLong(8), 56);
+                if (end.getInt(0) != ZIP64_END_SIGNATURE) {
+                    throw new IOException("Invalid zip64 end of central directory");
+                }
+                entryCount = end.getLong(32);
+                directorySize = end.getLong(40);
+                directoryOffset = end.getLong(48);
+            }
+        }
+
+        if (directorySize > Integer.MAX_VALUE) {
+            throw new IOException("Central directory too large");
+        }
+        ByteBuffer directory = read(directoryOffset, (int) directorySize);
+        int position = 0;
+        for (long i = 0; i < entryCount; i++) {
+            if (directory.getInt(position) != CENTRAL_SIGNATURE) {
+                throw new IOException("Invalid central directory header");
+            }
+
+            final int flags = Short.toUnsignedInt(directory.getShort(position + 8));
+            final int method = Short.toUnsignedInt(directory.getShort(position + 10));
+            final int crc = directory.getInt(position + 16);
+            long compressedSize = Integer.toUnsignedLong(directory.getInt(position + 20));
+            long size = Integer.toUnsignedLong(directory.getInt(position + 24));
+            int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+            int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+            final int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(directory.getInt(position + 42));
+
+            byte[] nameBytes = new byte[nameLength];
+            ByteBuffer nameView = directory.duplicate();
+            nameView.position(position + 46);
+            nameView.get(nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+            // Values that don't fit are stored in the zip64 extra field, in this order
+            int extra = position + 46 + nameLength;
+            int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                int id = Short.toUnsignedInt(directory.getShort(extra));
+                int length = Short.toUnsignedInt(directory.getShort(extra + 2));
+                if (id == 0x0001) {
+                    int field = extra + 4;
+                    if (size == 0xFFFFFFFFL) {
+                        size = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == 0xFFFFFFFFL) {
+                        compressedSize = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (localHeaderOffset == 0xFFFFFFFFL) {
+                        localHeaderOffset = directory.getLong(field);
+                    }
+                }
+                extra += 4 + length;
+            }
+
+            entries.putIfAbsent(name, new Entry(name, flags, method, crc, compressedSize, size, localHeaderOffset));
+            position = extraEnd + commentLength;
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position + buffer.position());
+            if (count < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static class Entry {
+        private final String name;
+        private final int flags;
+        private final int method;
+        private final int crc;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+
+        Entry(String name, int flags, int method, int crc, long compressedSize, long size, long localHeaderOffset) {
+            this.name = name;
+            this.flags = flags;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public int getFlags() {
+            return flags;
+        }
+
+        public int getMethod() {
+            return method;
+        }
+
+        public int getCrc() {
+            return crc;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.quiltmc.chasm.internal.zip;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes zip entries whose data was already compressed (or stored) elsewhere.
+ *
+ * <p>Entries don't use data descriptors and all have the same timestamp, so the output only depends on the entries.
+ * Zip64 records are written when required.
+ */
+public class ZipOutput implements Closeable {
+    public static final int STORED = 0;
+    public static final int DEFLATED = 8;
+
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int VERSION = 20;
+    private static final int ZIP64_VERSION = 45;
+    // 1980-01-01 00:00
+    private static final int DOS_DATE = (1 << 5) | 1;
+    private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+
+    private final OutputStream out;
+    private final List<Entry> entries = new ArrayList<>();
+    private long position = 0;
+
+    public ZipOutput(OutputStream out) {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+    }
+
+    /**
+     * Appends an entry.
+     *
+     * @param data The data as it should be stored, i.e. already compressed if the method is {@link #DEFLATED}.
+     */
+    public void write(String name, int method, int crc, long size, byte[] data) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        Entry entry = new Entry(nameBytes, method, crc, data.length, size, position);
+        boolean zip64 = entry.compressedSize >= ZIP64_LIMIT || entry.size >= ZIP64_LIMIT;
+
+        ByteBuffer header = buffer(30 + nameBytes.length + (zip64 ? 20 : 0));
+        header.putInt(LOCAL_SIGNATURE);
+        header.putShort((short) (zip64 ? ZIP64_VERSION : VERSION));
+        header.putShort((short) UTF8_FLAG);
+        header.putShort((short) method);
+        header.putShort((short) 0);
+        header.putShort((short) DOS_DATE);
+        header.putInt(crc);
+        header.putInt((int) (zip64 ? ZIP64_LIMIT : entry.compressedSize));
+        header.putInt((int) (zip64 ? ZIP64_LIMIT : entry.size));
+        header.putShort((short) nameBytes.length);
+        header.putShort((short) (zip64 ? 20 : 0));
+        header.put(nameBytes);
+        if (zip64) {
+            header.putShort((short) 0x0001);
+            header.putShort((short) 16);
+            header.putLong(entry.size);
+            header.putLong(entry.compressedSize);
+        }
+
+        writeBuffer(header);
+        out.write(data);
+        position += data.length;
+        entries.add(entry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void finish() throws IOException {
+        long directoryOffset = position;
+        for (Entry entry : entries) {
+            boolean largeSizes = entry.compressedSize >= ZIP64_LIMIT || entry.size >= ZIP64_LIMIT;
+            boolean largeOffset = entry.offset >= ZIP64_LIMIT;
+            int extraLength = largeSizes || largeOffset ? 4 + (largeSizes ? 16 : 0) + (largeOffset ? 8 : 0) : 0;
+
+            ByteBuffer header = buffer(46 + entry.name.length + extraLength);
+            header.putInt(CENTRAL_SIGNATURE);
+            header.putShort((short) (extraLength > 0 ? ZIP64_VERSION : VERSION));
+            header.putShort((short) (extraLength > 0 ? ZIP64_VERSION : VERSION));
+            header.putShort((short) UTF8_FLAG);
+            header.putShort((short) entry.method);
+            header.putShort((short) 0);
+            header.putShort((short) DOS_DATE);
+            header.putInt(entry.crc);
+            header.putInt((int) (largeSizes ? ZIP64_LIMIT : entry.compressedSize));
+            header.putInt((int) (largeSizes ? ZIP64_LIMIT : entry.size));
+            header.putShort((short) entry.name.length);
+            header.putShort((short) extraLength);
+            header.putShort((short) 0);
+            header.putShort((short) 0);
+            header.putShort((short) 0);
+            header.putInt(0);
+            header.putInt((int) (largeOffset ? ZIP64_LIMIT : entry.offset));
+            header.put(entry.name);
+            if (extraLength > 0) {
+                header.putShort((short) 0x0001);
+                header.putShort((short) (extraLength - 4));
+                if (largeSizes) {
+                    header.putLong(entry.size);
+                    header.putLong(entry.compressedSize);
+                }
+                if (largeOffset) {
+                    header.putLong(entry.offset);
+                }
+            }
+            writeBuffer(header);
+        }
+
+        long directorySize = position - directoryOffset;
+        boolean zip64 = entries.size() >= 0xFFFF || directoryOffset >= ZIP64_LIMIT || directorySize >= ZIP64_LIMIT;
+        if (zip64) {
+            long endOffset = position;
+
+            ByteBuffer end = buffer(56 + 20);
+            end.putInt(ZIP64_END_SIGNATURE);
+            end.putLong(44);
+            end.putShort((short) ZIP64_VERSION);
+            end.putShort((short) ZIP64_VERSION);
+            end.putInt(0);
+            end.putInt(0);
+            end.putLong(entries.size());
+            end.putLong(entries.size());
+            end.putLong(directorySize);
+            end.putLong(directoryOffset);
+
+            end.putInt(ZIP64_LOCATOR_SIGNATURE);
+            end.putInt(0);
+            end.putLong(endOffset);
+            end.putInt(1);
+            writeBuffer(end);
+        }
+
+        ByteBuffer end = buffer(22);
+        end.putInt(END_SIGNATURE);
+        end.putShort((short) 0);
+        end.putShort((short) 0);
+        end.putShort((short) (zip64 ? 0xFFFF : entries.size()));
+        end.putShort((short) (zip64 ? 0xFFFF : entries.size()));
+        end.putInt((int) (zip64 ? ZIP64_LIMIT : directorySize));
+        end.putInt((int) (zip64 ? ZIP64_LIMIT : directoryOffset));
+        end.putShort((short) 0);
+        writeBuffer(end);
+        out.flush();
+    }
+
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        out.write(buffer.array(), 0, buffer.position());
+        position += buffer.position();
+    }
+
+    private static class Entry {
+        private final byte[] name;
+        private final int method;
+        private final int crc;
+        private final long compressedSize;
+        private final long size;
+        private final long offset;
+
+        Entry(byte[] name, int method, int crc, long compressedSize, long size, long offset) {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.offset = offset;
+        }
+    }
+}
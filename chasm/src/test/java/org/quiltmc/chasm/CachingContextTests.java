@@ -0,0 +1,93 @@
+package org.quiltmc.chasm;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.quiltmc.chasm.api.util.CachingContext;
+import org.quiltmc.chasm.api.util.ClassInfo;
+import org.quiltmc.chasm.api.util.Context;
+
+/**
+ * Unit tests for {@link CachingContext}.
+ */
+public class CachingContextTests {
+    /**
+     * Repeated queries should only reach the parent once, including queries without an answer.
+     */
+    @Test
+    public void testCachesAnswers() {
+        CountingContext parent = new CountingContext();
+        CachingContext context = new CachingContext(parent);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals("a/A", context.getClassInfo("a/A").getClassName());
+            Assertions.assertNull(context.getClassInfo("missing/Missing"));
+            Assertions.assertEquals("file", new String(context.readFile("file"), StandardCharsets.UTF_8));
+            Assertions.assertNull(context.readFile("missing"));
+        }
+
+        Assertions.assertEquals(4, parent.queries.size());
+        parent.queries.values().forEach(count -> Assertions.assertEquals(1, count));
+        Assertions.assertEquals(4, context.getMisses());
+        Assertions.assertEquals(8, context.getHits());
+    }
+
+    /**
+     * Once full, the least recently used entry should be evicted.
+     */
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        CountingContext parent = new CountingContext();
+        CachingContext context = new CachingContext(parent, 2, 1);
+
+        context.getClassInfo("a/A");
+        context.getClassInfo("b/B");
+        context.getClassInfo("a/A");
+        context.getClassInfo("c/C");
+        context.getClassInfo("a/A");
+        context.getClassInfo("b/B");
+
+        Assertions.assertEquals(1, parent.queries.get("class a/A"));
+        Assertions.assertEquals(2, parent.queries.get("class b/B"));
+        Assertions.assertEquals(1, parent.queries.get("class c/C"));
+    }
+
+    /**
+     * Modifying returned file contents should not affect the cache.
+     */
+    @Test
+    public void testCopiesFiles() {
+        CachingContext context = new CachingContext(new CountingContext());
+
+        context.readFile("file")[0] = 0;
+        Assertions.assertEquals("file", new String(context.readFile("file"), StandardCharsets.UTF_8));
+    }
+
+    private static class CountingContext implements Context {
+        private final Map<String, Integer> queries = new HashMap<>();
+
+        @Override
+        public @Nullable ClassInfo getClassInfo(String className) {
+            queries.merge("class " + className, 1, Integer::sum);
+            if (className.startsWith("missing/")) {
+                return null;
+            }
+
+            return new ClassInfo(className, ClassInfo.OBJECT, new String[0], false);
+        }
+
+        @Override
+        public byte @Nullable [] readFile(String path) {
+            queries.merge("file " + path, 1, Integer::sum);
+            if (path.equals("missing")) {
+                return null;
+            }
+
+            return path.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
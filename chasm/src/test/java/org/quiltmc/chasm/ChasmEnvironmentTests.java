@@ -0,0 +1,101 @@
+package org.quiltmc.chasm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.util.ClassOrigin;
+import org.quiltmc.chasm.internal.util.ChasmEnvironment;
+
+/**
+ * Unit tests for {@link ChasmEnvironment#collectClasses}.
+ */
+public class ChasmEnvironmentTests {
+    private static final Path CLASSES = Paths.get("build/classes/java/testData");
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Classes should be collected from directories and jars in classpath order and sorted by path within each
+     * entry, tagged with where they were read from, skipping files in {@code META-INF} and module descriptors.
+     */
+    @Test
+    public void testCollectsClasses() throws IOException {
+        // Entries are added out of order, so the sorting is visible
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("other/ExampleClass.class", Files.readAllBytes(CLASSES.resolve("other/ExampleClass.class")));
+        files.put("empty/EmptyClass.class", Files.readAllBytes(CLASSES.resolve("empty/EmptyClass.class")));
+        files.put("META-INF/versions/9/other/ExampleClass.class", new byte[] {0});
+        files.put("module-info.class", new byte[] {0});
+        files.put("other/ExampleClass.txt", new byte[] {0});
+
+        Path classDirectory = directory.resolve("classes");
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            Path path = classDirectory.resolve(file.getKey());
+            Files.createDirectories(path.getParent());
+            Files.write(path, file.getValue());
+        }
+
+        Path jar = directory.resolve("classes.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                out.putNextEntry(new ZipEntry(file.getKey()));
+                out.write(file.getValue());
+            }
+        }
+
+        List<String> expected = List.of(
+                classDirectory + "!/empty/EmptyClass.class",
+                classDirectory + "!/other/ExampleClass.class",
+                jar + "!/empty/EmptyClass.class",
+                jar + "!/other/ExampleClass.class"
+        );
+        Assertions.assertEquals(expected, collect(classDirectory, jar, null));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Assertions.assertEquals(expected, collect(classDirectory, jar, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Returns the origins of the collected classes, in the order they were added to the processor.
+     */
+    private static List<String> collect(Path classDirectory, Path jar, @Nullable ExecutorService executor)
+            throws IOException {
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        try (ChasmEnvironment environment = new ChasmEnvironment(new TestFixtures.EmptyContext())) {
+            environment.addToClasspath(classDirectory);
+            environment.addToClasspath(jar);
+            environment.collectClasses(processor, executor);
+        }
+
+        // Without transformers, all classes are returned unmodified in the order they were added
+        List<String> origins = new ArrayList<>();
+        for (ClassResult result : processor.process()) {
+            Assertions.assertEquals(ClassResult.Type.UNMODIFIED, result.getType());
+            ClassOrigin origin = result.getMetadata().get(ClassOrigin.class);
+            Assertions.assertNotNull(origin);
+            origins.add(origin.toString());
+        }
+        return origins;
+    }
+}
@@ -0,0 +1,106 @@
+package org.quiltmc.chasm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.Transformation;
+import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.util.ClassFilter;
+import org.quiltmc.chasm.internal.transformer.ChasmLangTransformer;
+import org.quiltmc.chasm.internal.util.NodeConstants;
+import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
+/**
+ * Unit tests for {@link ClassFilter}.
+ */
+public class ClassFilterTests {
+    private static final Path CLASSES = Paths.get("build/classes/java/testData");
+
+    @Test
+    public void testMatches() {
+        ClassFilter filter = ClassFilter.of(List.of("a/A"), List.of("b", "c.d"));
+
+        Assertions.assertTrue(filter.matches("a/A"));
+        Assertions.assertFalse(filter.matches("a/B"));
+        Assertions.assertTrue(filter.matches("b/B"));
+        Assertions.assertTrue(filter.matches("b/e/B"));
+        Assertions.assertFalse(filter.matches("bb/B"));
+        Assertions.assertTrue(filter.matches("c/d/D"));
+        Assertions.assertFalse(filter.matches("c/D"));
+    }
+
+    /**
+     * Transformers with a filter should only receive the matching classes, in order.
+     */
+    @Test
+    public void testFiltersClasses() throws IOException {
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        for (String name : List.of("empty/EmptyClass", "other/ExampleClass", "empty/EmptyInterface")) {
+            processor.addClass(Files.readAllBytes(CLASSES.resolve(name + ".class")), new Metadata());
+        }
+
+        NameRecorder all = new NameRecorder(null);
+        NameRecorder filtered = new NameRecorder(ClassFilter.of(List.of("other/ExampleClass"), List.of("empty")));
+        NameRecorder classes = new NameRecorder(ClassFilter.classes("other/ExampleClass", "missing/Missing"));
+        processor.addTransformer(all);
+        processor.addTransformer(filtered);
+        processor.addTransformer(classes);
+        processor.process();
+
+        Assertions.assertEquals(List.of("empty/EmptyClass", "other/ExampleClass", "empty/EmptyInterface"), all.names);
+        Assertions.assertEquals(List.of("empty/EmptyClass", "other/ExampleClass", "empty/EmptyInterface"),
+                filtered.names);
+        Assertions.assertEquals(List.of("other/ExampleClass"), classes.names);
+    }
+
+    @Test
+    public void testChasmLangFilter() {
+        Node parsed = Node.parse("{ filter: { classes: [\"a/A\"], packages: [\"b\"] }, transformations: [] }");
+        ClassFilter filter = new ChasmLangTransformer("test", parsed, new TestFixtures.EmptyContext()).getClassFilter();
+
+        Assertions.assertNotNull(filter);
+        Assertions.assertTrue(filter.matches("a/A"));
+        Assertions.assertTrue(filter.matches("b/B"));
+        Assertions.assertFalse(filter.matches("c/C"));
+    }
+
+    private static class NameRecorder implements Transformer {
+        private final @Nullable ClassFilter filter;
+        private final List<String> names = new ArrayList<>();
+
+        NameRecorder(@Nullable ClassFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public Collection<Transformation> apply(ListNode classes) {
+            for (Node node : classes.getEntries()) {
+                names.add(NodeUtils.getAsString(node, NodeConstants.NAME));
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getId() {
+            return "recorder" + System.identityHashCode(this);
+        }
+
+        @Override
+        public @Nullable ClassFilter getClassFilter() {
+            return filter;
+        }
+    }
+}
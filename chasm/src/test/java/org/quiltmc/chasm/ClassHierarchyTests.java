@@ -0,0 +1,123 @@
+package org.quiltmc.chasm;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quiltmc.chasm.api.util.ClassInfo;
+import org.quiltmc.chasm.internal.ChasmContext;
+import org.quiltmc.chasm.internal.ClassHierarchy;
+import org.quiltmc.chasm.internal.util.NodeConstants;
+import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.lang.api.ast.Ast;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.MapNode;
+
+/**
+ * Unit tests for {@link ClassHierarchy}.
+ */
+public class ClassHierarchyTests {
+    private ListNode classes;
+    private Map<String, Integer> indices;
+    private ChasmContext context;
+
+    @BeforeEach
+    public void setUp() {
+        classes = Ast.emptyList();
+        indices = new HashMap<>();
+        context = new ChasmContext(new LibraryContext(), classes);
+
+        // Base extends a class of the parent context, A and B extend Base, and C extends A
+        addClass("test/Base", "lib/Library");
+        addClass("test/A", "test/Base");
+        addClass("test/B", "test/Base");
+        addClass("test/C", "test/A");
+        context.refresh();
+    }
+
+    /**
+     * Common superclasses should be found among added classes and the classes of the parent context.
+     */
+    @Test
+    public void testAddedClasses() {
+        ClassHierarchy hierarchy = context.getHierarchy();
+
+        Assertions.assertEquals("test/A", hierarchy.getCommonSuperClass("test/C", "test/A"));
+        Assertions.assertEquals("test/Base", hierarchy.getCommonSuperClass("test/C", "test/B"));
+        Assertions.assertEquals("lib/Library", hierarchy.getCommonSuperClass("test/C", "lib/Other"));
+        Assertions.assertEquals(ClassInfo.OBJECT, hierarchy.getCommonSuperClass("test/C", "lib/Unrelated"));
+    }
+
+    /**
+     * Changing the superclass of a class should drop the cached chains of the class and its subclasses,
+     * but keep the other chains.
+     */
+    @Test
+    public void testChangedSuperClass() {
+        ClassHierarchy hierarchy = context.getHierarchy();
+        Assertions.assertEquals("test/Base", hierarchy.getCommonSuperClass("test/C", "test/B"));
+
+        setSuperClass("test/A", "test/B");
+        context.update(indices.get("test/A"));
+
+        Assertions.assertNull(hierarchy.getCachedSuperClass("test/A"));
+        Assertions.assertNull(hierarchy.getCachedSuperClass("test/C"));
+        Assertions.assertEquals("test/Base", hierarchy.getCachedSuperClass("test/B"));
+        Assertions.assertEquals("test/B", hierarchy.getCommonSuperClass("test/C", "test/B"));
+        Assertions.assertEquals("test/B", hierarchy.getCachedSuperClass("test/A"));
+    }
+
+    /**
+     * Changed superclasses should also be picked up when all classes are refreshed,
+     * and so should classes that are added or renamed.
+     */
+    @Test
+    public void testRefresh() {
+        ClassHierarchy hierarchy = context.getHierarchy();
+        Assertions.assertEquals("test/Base", hierarchy.getCommonSuperClass("test/C", "test/B"));
+
+        NodeUtils.asMap(classes.get(indices.get("test/B"))).put(NodeConstants.NAME, Ast.literal("test/Renamed"));
+        setSuperClass("test/C", "test/Renamed");
+        addClass("test/D", "test/Renamed");
+        context.refresh();
+
+        Assertions.assertEquals("test/Renamed", hierarchy.getCommonSuperClass("test/C", "test/D"));
+        Assertions.assertEquals("test/Base", hierarchy.getCommonSuperClass("test/C", "test/A"));
+    }
+
+    private void addClass(String name, String superName) {
+        indices.put(name, classes.size());
+        classes.add(Ast.map()
+                .put(NodeConstants.ACCESS, 0)
+                .put(NodeConstants.NAME, name)
+                .put(NodeConstants.SUPER, superName)
+                .put(NodeConstants.INTERFACES, Ast.emptyList())
+                .build());
+    }
+
+    private void setSuperClass(String name, String superName) {
+        MapNode classNode = NodeUtils.asMap(classes.get(indices.get(name)));
+        classNode.put(NodeConstants.SUPER, Ast.literal(superName));
+    }
+
+    /**
+     * Knows a library class and two of its subclasses, one of which is unrelated to the added classes.
+     */
+    private static class LibraryContext extends TestFixtures.EmptyContext {
+        @Override
+        public @Nullable ClassInfo getClassInfo(String className) {
+            switch (className) {
+                case "lib/Library":
+                case "lib/Unrelated":
+                    return new ClassInfo(className, ClassInfo.OBJECT, new String[0], false);
+                case "lib/Other":
+                    return new ClassInfo(className, "lib/Library", new String[0], false);
+                default:
+                    return super.getClassInfo(className);
+            }
+        }
+    }
+}
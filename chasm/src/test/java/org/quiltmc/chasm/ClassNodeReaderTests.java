@@ -0,0 +1,249 @@
+package org.quiltmc.chasm;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.util.Textifier;
+import org.objectweb.asm.util.TraceMethodVisitor;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.target.NodeTarget;
+import org.quiltmc.chasm.api.target.SliceTarget;
+import org.quiltmc.chasm.internal.metadata.ChangeMetadata;
+import org.quiltmc.chasm.internal.tree.ClassNode;
+import org.quiltmc.chasm.internal.tree.reader.ClassNodeReader;
+import org.quiltmc.chasm.internal.util.NodeConstants;
+import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.lang.api.ast.Ast;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.MapNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
+/**
+ * Unit tests for copying unmodified methods and code in {@link ClassNodeReader}.
+ */
+public class ClassNodeReaderTests {
+    private static final Path CLASS_FILE = Paths.get("build/classes/java/testData/other/TestLocalVariables.class");
+
+    /**
+     * Methods that weren't changed should be written exactly as in the source class, including their frames,
+     * and a method whose code wasn't changed should keep it.
+     */
+    @Test
+    public void testUntouchedMethodsIdentical() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+        byte[] result = process(classBytes, new TestFixtures.TargetTransformer(
+                classes -> new NodeTarget(NodeUtils.asMap(getMethod(classes.get(0), "mergeVariable"))
+                        .get(NodeConstants.NAME)),
+                node -> Ast.literal("renamedMethod")
+        ));
+
+        Map<String, String> original = textifyMethods(classBytes);
+        Map<String, String> written = textifyMethods(result);
+        Assertions.assertEquals(original.size(), written.size());
+        for (Map.Entry<String, String> method : original.entrySet()) {
+            String name = method.getKey().equals("mergeVariable()V") ? "renamedMethod()V" : method.getKey();
+            Assertions.assertEquals(method.getValue(), written.get(name), name);
+        }
+    }
+
+    /**
+     * A method with changed code should get frames that match its new code.
+     */
+    @Test
+    public void testEditedMethodGetsNewFrames() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+        byte[] result = process(classBytes, new TestFixtures.TargetTransformer(
+                classes -> {
+                    MapNode code = NodeUtils.getAsMap(getMethod(classes.get(0), "mergeVariable"), NodeConstants.CODE);
+                    return new SliceTarget(NodeUtils.getAsList(code, NodeConstants.INSTRUCTIONS), 0, 0);
+                },
+                node -> Ast.list(
+                        Ast.map().put(NodeConstants.OPCODE, Opcodes.ICONST_0).build(),
+                        Ast.map().put(NodeConstants.OPCODE, Opcodes.POP).build()
+                )
+        ));
+
+        Map<String, String> original = textifyMethods(classBytes);
+        Map<String, String> written = textifyMethods(result);
+        Map<String, String> recomputed = textifyMethods(recomputeFrames(result));
+        Assertions.assertNotEquals(original.get("mergeVariable()V"), written.get("mergeVariable()V"));
+        Assertions.assertEquals(recomputed.get("mergeVariable()V"), written.get("mergeVariable()V"));
+
+        // The other methods are still copied
+        for (Map.Entry<String, String> method : original.entrySet()) {
+            if (!method.getKey().equals("mergeVariable()V")) {
+                Assertions.assertEquals(method.getValue(), written.get(method.getKey()), method.getKey());
+            }
+        }
+    }
+
+    /**
+     * The code of a changed method should only be reused if its locals, parameters and static flag are unchanged.
+     */
+    @Test
+    public void testCodeReuseRequiresSameLocals() throws IOException {
+        MapNode classNode = materialize(Files.readAllBytes(CLASS_FILE), new AtomicInteger());
+        ChangeMetadata changes = classNode.getMetadata().get(ChangeMetadata.class);
+        ListNode methods = NodeUtils.getAsList(classNode, NodeConstants.METHODS);
+        int index = methods.getEntries().indexOf(getMethod(classNode, "staticMethod"));
+        MapNode method = NodeUtils.asMap(methods.get(index));
+
+        Assertions.assertEquals(index, changes.getOriginalMethodIndex(method));
+        changes.markModified(method);
+        Assertions.assertEquals(-1, changes.getOriginalMethodIndex(method));
+        Assertions.assertEquals(index, changes.getOriginalCodeIndex(method));
+
+        for (String key : new String[] {NodeConstants.LOCALS, NodeConstants.PARAMETERS}) {
+            Node previous = method.get(key);
+            method.put(key, new ListNode(new ArrayList<>(NodeUtils.asList(previous).getEntries())));
+            Assertions.assertEquals(-1, changes.getOriginalCodeIndex(method), key);
+            method.put(key, previous);
+            Assertions.assertEquals(index, changes.getOriginalCodeIndex(method), key);
+        }
+
+        int access = NodeUtils.getAsInt(method, NodeConstants.ACCESS);
+        method.put(NodeConstants.ACCESS, Ast.literal(access & ~Opcodes.ACC_STATIC));
+        Assertions.assertEquals(-1, changes.getOriginalCodeIndex(method));
+    }
+
+    /**
+     * Methods should only be copied while the class header is unchanged, since their frames depend on it.
+     */
+    @Test
+    public void testChangedHeaderDisablesCopying() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+        Assertions.assertNotNull(new ClassNodeReader(materialize(classBytes, new AtomicInteger())).getCopySource());
+
+        Map<String, Node> headers = new LinkedHashMap<>();
+        headers.put(NodeConstants.NAME, Ast.literal("other/RenamedClass"));
+        headers.put(NodeConstants.SUPER, Ast.literal("java/lang/Number"));
+        headers.put(NodeConstants.INTERFACES, Ast.list(Ast.literal("java/lang/Runnable")));
+        for (Map.Entry<String, Node> header : headers.entrySet()) {
+            MapNode classNode = materialize(classBytes, new AtomicInteger());
+            classNode.put(header.getKey(), header.getValue());
+
+            ClassNodeReader reader = new ClassNodeReader(classNode);
+            Assertions.assertNull(reader.getCopySource(), header.getKey());
+            Assertions.assertFalse(reader.reusesFrames(), header.getKey());
+        }
+    }
+
+    /**
+     * The source class should only be read again if any of its methods or code can be reused.
+     */
+    @Test
+    public void testSourceReadOnlyWhenReused() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+
+        AtomicInteger reads = new AtomicInteger();
+        MapNode classNode = materialize(classBytes, reads);
+        int initialReads = reads.get();
+        Assertions.assertNotNull(new ClassNodeReader(classNode).getCopySource());
+        Assertions.assertEquals(initialReads + 1, reads.get());
+
+        reads.set(0);
+        classNode = materialize(classBytes, reads);
+        ChangeMetadata changes = classNode.getMetadata().get(ChangeMetadata.class);
+        for (Node method : NodeUtils.getAsList(classNode, NodeConstants.METHODS).getEntries()) {
+            changes.markModified(method);
+            changes.markModified(NodeUtils.asMap(method).get(NodeConstants.CODE));
+        }
+        initialReads = reads.get();
+
+        ClassNodeReader reader = new ClassNodeReader(classNode);
+        Assertions.assertNull(reader.getCopySource());
+        Assertions.assertFalse(reader.reusesFrames());
+        Assertions.assertEquals(initialReads, reads.get());
+    }
+
+    private static byte[] process(byte[] classBytes, TestFixtures.TargetTransformer transformer) {
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        processor.addClass(classBytes, new Metadata());
+        processor.addTransformer(transformer);
+
+        List<ClassResult> results = processor.process();
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals(ClassResult.Type.MODIFIED, results.get(0).getType());
+        return results.get(0).getClassBytes();
+    }
+
+    /**
+     * Turns a class into a modifiable tree that tracks its changes, like a transformation targeting it would.
+     * Every time the bytes of the class are loaded, the given counter is incremented.
+     */
+    private static MapNode materialize(byte[] classBytes, AtomicInteger reads) {
+        ClassNode classNode = new ClassNode(() -> {
+            reads.incrementAndGet();
+            return classBytes;
+        }, new TestFixtures.EmptyContext(), 0);
+        MapNode mapNode = new MapNode(classNode.getLazyEntries());
+        mapNode.getMetadata().put(ChangeMetadata.class, new ChangeMetadata(classNode));
+        return mapNode;
+    }
+
+    private static Node getMethod(Node classNode, String name) {
+        for (Node method : NodeUtils.getAsList(classNode, NodeConstants.METHODS).getEntries()) {
+            if (name.equals(NodeUtils.getAsString(method, NodeConstants.NAME))) {
+                return method;
+            }
+        }
+
+        throw new AssertionError("Missing method " + name);
+    }
+
+    /**
+     * Writes the class again, computing the frames of all methods from scratch.
+     */
+    private static byte[] recomputeFrames(byte[] classBytes) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return "java/lang/Object";
+            }
+        };
+        new ClassReader(classBytes).accept(writer, ClassReader.SKIP_FRAMES);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Returns the text of every method of the class, including its frames as stored in the class file.
+     */
+    private static Map<String, String> textifyMethods(byte[] classBytes) {
+        Map<String, Textifier> textifiers = new LinkedHashMap<>();
+        new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                             String[] exceptions) {
+                Textifier textifier = new Textifier();
+                textifiers.put(name + descriptor, textifier);
+                return new TraceMethodVisitor(textifier);
+            }
+        }, 0);
+
+        Map<String, String> methods = new LinkedHashMap<>();
+        for (Map.Entry<String, Textifier> entry : textifiers.entrySet()) {
+            StringWriter text = new StringWriter();
+            entry.getValue().print(new PrintWriter(text));
+            methods.put(entry.getKey(), text.toString());
+        }
+        return methods;
+    }
+}
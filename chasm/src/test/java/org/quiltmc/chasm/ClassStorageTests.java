@@ -0,0 +1,79 @@
+package org.quiltmc.chasm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.util.ClassStorage;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
+/**
+ * Unit tests for the {@link ClassStorage} implementations.
+ */
+public class ClassStorageTests {
+    private static final Path CLASS_FILE = Paths.get("build/classes/java/testData/other/ExampleClass.class");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testDeflate() throws IOException {
+        try (ClassStorage storage = ClassStorage.deflate()) {
+            assertStoresBytes(storage);
+        }
+    }
+
+    @Test
+    public void testMapped() throws IOException {
+        try (ClassStorage storage = ClassStorage.mapped(directory)) {
+            assertStoresBytes(storage);
+        }
+    }
+
+    /**
+     * Unmodified classes should be returned as they were added.
+     */
+    @Test
+    public void testProcessor() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+
+        try (ClassStorage storage = ClassStorage.deflate()) {
+            ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+            processor.setClassStorage(storage);
+            processor.addClass(classBytes, new Metadata());
+
+            List<ClassResult> results = processor.process();
+            Assertions.assertEquals(1, results.size());
+            Assertions.assertEquals(ClassResult.Type.UNMODIFIED, results.get(0).getType());
+            Assertions.assertArrayEquals(classBytes, results.get(0).getClassBytes());
+        }
+    }
+
+    private static void assertStoresBytes(ClassStorage storage) {
+        Random random = new Random(0);
+        List<byte[]> expected = new ArrayList<>();
+        List<Supplier<byte[]>> stored = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            // Include empty and large arrays
+            byte[] bytes = new byte[i == 0 ? 0 : random.nextInt(1 << (i % 20 + 1))];
+            random.nextBytes(bytes);
+            expected.add(bytes);
+            stored.add(storage.store(bytes.clone()));
+        }
+
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertArrayEquals(expected.get(i), stored.get(i).get());
+            Assertions.assertArrayEquals(expected.get(i), stored.get(i).get());
+        }
+    }
+}
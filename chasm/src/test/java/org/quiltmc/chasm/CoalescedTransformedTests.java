@@ -0,0 +1,15 @@
+package org.quiltmc.chasm;
+
+import org.junit.jupiter.api.BeforeEach;
+
+/**
+ * Tests for checking transformations with coalesced slice replacements, which must give the same results.
+ */
+public class CoalescedTransformedTests extends TransformedTests {
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        processor.setCoalesceSlices(true);
+    }
+}
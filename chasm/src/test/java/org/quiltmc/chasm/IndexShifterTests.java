@@ -0,0 +1,88 @@
+package org.quiltmc.chasm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.quiltmc.chasm.internal.IndexShifter;
+
+/**
+ * Unit tests for {@link IndexShifter}.
+ */
+public class IndexShifterTests {
+    /**
+     * Random edits should translate indices like a list that keeps removed original entries as tombstones.
+     */
+    @Test
+    public void testMatchesList() {
+        Random random = new Random(0);
+        for (int run = 0; run < 100; run++) {
+            int size = random.nextInt(20);
+            IndexShifter shifter = new IndexShifter(size);
+
+            // Original entries are their index, removed ones their index + size, inserted ones -1
+            List<Integer> list = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+            }
+
+            for (int edit = 0; edit < 20; edit++) {
+                List<Integer> live = new ArrayList<>();
+                for (int i = 0; i < list.size(); i++) {
+                    if (list.get(i) < size) {
+                        live.add(i);
+                    }
+                }
+
+                int start = random.nextInt(live.size() + 1);
+                if (random.nextBoolean()) {
+                    int count = 1 + random.nextInt(3);
+                    shifter.insert(start, count);
+                    int position = start == live.size() ? list.size() : live.get(start);
+                    for (int i = 0; i < count; i++) {
+                        list.add(position, -1);
+                    }
+                } else {
+                    int end = start + random.nextInt(live.size() - start + 1);
+                    shifter.remove(start, end);
+                    for (int i = end - 1; i >= start; i--) {
+                        int position = live.get(i);
+                        if (list.get(position) < 0) {
+                            list.remove(position);
+                        } else {
+                            list.set(position, list.get(position) + size);
+                        }
+                    }
+                }
+
+                for (int i = 0; i < size; i++) {
+                    Assertions.assertEquals(countLiveBefore(list, i, size), shifter.translate(i));
+                }
+                int currentSize = countLiveBefore(list, -1, size);
+                Assertions.assertEquals(currentSize, shifter.translate(size));
+
+                for (int index = 0; index <= currentSize; index++) {
+                    int original = shifter.findOriginal(index);
+                    Assertions.assertTrue(original == size || shifter.translate(original) >= index);
+                    Assertions.assertTrue(original == 0 || shifter.translate(original - 1) < index);
+                }
+            }
+        }
+    }
+
+    private static int countLiveBefore(List<Integer> list, int originalIndex, int size) {
+        int count = 0;
+        for (int entry : list) {
+            if (originalIndex >= 0 && (entry == originalIndex || entry == originalIndex + size)) {
+                break;
+            }
+            if (entry < size) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+}
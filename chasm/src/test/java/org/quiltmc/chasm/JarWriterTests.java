@@ -0,0 +1,89 @@
+package org.quiltmc.chasm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.util.ClassOrigin;
+import org.quiltmc.chasm.api.util.JarWriter;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
+/**
+ * Unit tests for {@link JarWriter}.
+ */
+public class JarWriterTests {
+    private static final Path CLASSES = Paths.get("build/classes/java/testData");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testWritesResults() throws IOException {
+        byte[] example = Files.readAllBytes(CLASSES.resolve("other/ExampleClass.class"));
+        byte[] removed = Files.readAllBytes(CLASSES.resolve("other/ExampleAnnotation.class"));
+        byte[] added = Files.readAllBytes(CLASSES.resolve("other/ExampleEnum.class"));
+
+        // Compress the source differently than the writer would, so copied entries can be recognized
+        Path source = directory.resolve("source.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(source))) {
+            out.setLevel(Deflater.BEST_COMPRESSION);
+            out.putNextEntry(new ZipEntry("other/ExampleClass.class"));
+            out.write(example);
+            out.putNextEntry(new ZipEntry("other/ExampleAnnotation.class"));
+            out.write(removed);
+        }
+
+        Path output = directory.resolve("output.jar");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (JarWriter writer = new JarWriter(output, executor)) {
+            writer.accept(result(example, ClassResult.Type.UNMODIFIED, source, "other/ExampleClass.class"));
+            writer.accept(result(null, ClassResult.Type.REMOVED, source, "other/ExampleAnnotation.class"));
+            writer.accept(result(added, ClassResult.Type.ADDED, null, null));
+            writer.addFile("META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n".getBytes());
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(output))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                entries.put(entry.getName(), in.readAllBytes());
+            }
+        }
+
+        Assertions.assertEquals(3, entries.size());
+        Assertions.assertArrayEquals(example, entries.get("other/ExampleClass.class"));
+        Assertions.assertArrayEquals(added, entries.get("other/ExampleEnum.class"));
+        Assertions.assertArrayEquals("Manifest-Version: 1.0\n".getBytes(), entries.get("META-INF/MANIFEST.MF"));
+
+        try (ZipFile sourceZip = new ZipFile(source.toFile()); ZipFile outputZip = new ZipFile(output.toFile())) {
+            Assertions.assertEquals(
+                    sourceZip.getEntry("other/ExampleClass.class").getCompressedSize(),
+                    outputZip.getEntry("other/ExampleClass.class").getCompressedSize()
+            );
+        }
+    }
+
+    private static ClassResult result(byte[] bytes, ClassResult.Type type, Path jar, String entryPath) {
+        Metadata metadata = new Metadata();
+        if (jar != null) {
+            metadata.put(ClassOrigin.class, new ClassOrigin(jar, entryPath));
+        }
+
+        return new ClassResult(bytes, metadata, type);
+    }
+}
@@ -0,0 +1,98 @@
+package org.quiltmc.chasm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.Transformation;
+import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.target.NodeTarget;
+import org.quiltmc.chasm.api.target.Target;
+import org.quiltmc.chasm.internal.util.NodeConstants;
+import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.lang.api.ast.Ast;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+
+/**
+ * Unit tests for applying transformations of unrelated classes concurrently.
+ */
+public class ParallelApplicationTests {
+    /**
+     * Applying transformations concurrently should give the same classes as applying them sequentially.
+     */
+    @Test
+    public void testMatchesSequential() {
+        List<ClassResult> parallel = TestFixtures.assertMatchesSequential(executor -> {
+            ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+            processor.setExecutor(executor);
+            processor.setParallelTransformations(true);
+            TestFixtures.addClasses(processor);
+            processor.addTransformer(new AccessTransformer());
+
+            return processor.process();
+        });
+
+        for (ClassResult result : parallel) {
+            Assertions.assertEquals(ClassResult.Type.MODIFIED, result.getType());
+        }
+    }
+
+    /**
+     * Marks every class as synthetic, and makes every second class also copy the access of the class before it,
+     * so some transformations span two classes.
+     */
+    private static class AccessTransformer implements Transformer {
+        @Override
+        public Collection<Transformation> apply(ListNode classes) {
+            List<Transformation> transformations = new ArrayList<>();
+            for (int i = 0; i < classes.size(); i++) {
+                Node access = NodeUtils.asMap(classes.get(i)).get(NodeConstants.ACCESS);
+                Map<String, Target> sources = i % 2 == 0 ? Collections.emptyMap()
+                        : Map.of("previous", new NodeTarget(NodeUtils.asMap(classes.get(i - 1))
+                                .get(NodeConstants.ACCESS)));
+
+                transformations.add(new Transformation() {
+                    @Override
+                    public Transformer getParent() {
+                        return AccessTransformer.this;
+                    }
+
+                    @Override
+                    public Target getTarget() {
+                        return new NodeTarget(access);
+                    }
+
+                    @Override
+                    public Map<String, Target> getSources() {
+                        return sources;
+                    }
+
+                    @Override
+                    public Node apply(Node targetNode, Map<String, Node> nodeSources) {
+                        int result = NodeUtils.asInt(targetNode) | Opcodes.ACC_SYNTHETIC;
+                        Node previous = nodeSources.get("previous");
+                        if (previous != null) {
+                            result |= NodeUtils.asInt(previous) & Opcodes.ACC_PUBLIC;
+                        }
+                        return Ast.literal(result);
+                    }
+                });
+            }
+
+            return transformations;
+        }
+
+        @Override
+        public String getId() {
+            return "access";
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.quiltmc.chasm;
+
+import org.junit.jupiter.api.Test;
+import org.quiltmc.chasm.api.ChasmProcessor;
+
+/**
+ * Unit tests for reading the added classes concurrently.
+ */
+public class ParallelReadingTests {
+    /**
+     * Reading classes on an executor should give the same classes, in the same order, as reading them sequentially.
+     */
+    @Test
+    public void testMatchesSequential() {
+        TestFixtures.assertMatchesSequential(executor -> {
+            ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+            processor.setExecutor(executor);
+            TestFixtures.addClasses(processor);
+            processor.addTransformer(new TestFixtures.SyntheticTransformer());
+
+            return processor.process();
+        });
+    }
+}
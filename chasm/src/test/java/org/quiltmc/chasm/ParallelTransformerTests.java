@@ -0,0 +1,144 @@
+package org.quiltmc.chasm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.Transformation;
+import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.target.NodeTarget;
+import org.quiltmc.chasm.api.target.Target;
+import org.quiltmc.chasm.internal.util.NodeConstants;
+import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.lang.api.ast.Ast;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+
+/**
+ * Unit tests for applying the transformers of a round concurrently.
+ */
+public class ParallelTransformerTests {
+    /**
+     * Applying the transformers of each round concurrently should give the same classes as applying them
+     * sequentially, and later rounds should see the results of the earlier ones.
+     */
+    @Test
+    public void testMatchesSequential() {
+        List<ClassResult> parallel = TestFixtures.assertMatchesSequential(ParallelTransformerTests::process);
+
+        for (ClassResult result : parallel) {
+            Assertions.assertEquals(ClassResult.Type.MODIFIED, result.getType());
+        }
+
+        int index = TestFixtures.CLASSES.indexOf("other/TestLocalVariables");
+        List<String> methods = getMethodNames(parallel.get(index).getClassBytes());
+        Assertions.assertTrue(methods.contains("staticMethod$m$second"), methods.toString());
+        Assertions.assertTrue(methods.contains("<init>"), methods.toString());
+    }
+
+    private static List<ClassResult> process(@Nullable Executor executor) {
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        processor.setExecutor(executor);
+        processor.setParallelTransformers(true);
+        TestFixtures.addClasses(processor);
+
+        // The first round has three independent transformers, the second one depends on all of them
+        processor.addTransformer(new TestFixtures.SyntheticTransformer());
+        processor.addTransformer(new SuffixTransformer("methods", NodeConstants.METHODS, "", "$m"));
+        processor.addTransformer(new SuffixTransformer("fields", NodeConstants.FIELDS, "", "$f"));
+        processor.addTransformer(new SuffixTransformer("second", NodeConstants.METHODS, "$m", "$second") {
+            @Override
+            public Set<String> mustRunRoundAfter(Set<String> transformerIds) {
+                return Set.of("synthetic", "methods", "fields");
+            }
+        });
+
+        return processor.process();
+    }
+
+    private static List<String> getMethodNames(byte[] classBytes) {
+        List<String> names = new ArrayList<>();
+        new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                             String[] exceptions) {
+                names.add(name);
+                return null;
+            }
+        }, ClassReader.SKIP_CODE);
+        return names;
+    }
+
+    /**
+     * Appends a suffix to the names of all members of one kind that end with a given suffix,
+     * except for constructors and static initializers.
+     */
+    private static class SuffixTransformer implements Transformer {
+        private final String id;
+        private final String members;
+        private final String required;
+        private final String suffix;
+
+        SuffixTransformer(String id, String members, String required, String suffix) {
+            this.id = id;
+            this.members = members;
+            this.required = required;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public Collection<Transformation> apply(ListNode classes) {
+            List<Transformation> transformations = new ArrayList<>();
+            for (Node classNode : classes.getEntries()) {
+                ListNode memberList = NodeUtils.getAsList(classNode, members);
+                if (memberList == null) {
+                    continue;
+                }
+
+                for (Node member : memberList.getEntries()) {
+                    Node name = NodeUtils.asMap(member).get(NodeConstants.NAME);
+                    String value = NodeUtils.asString(name);
+                    if (value.startsWith("<") || !value.endsWith(required)) {
+                        continue;
+                    }
+
+                    transformations.add(new Transformation() {
+                        @Override
+                        public Transformer getParent() {
+                            return SuffixTransformer.this;
+                        }
+
+                        @Override
+                        public Target getTarget() {
+                            return new NodeTarget(name);
+                        }
+
+                        @Override
+                        public Node apply(Node targetNode, Map<String, Node> nodeSources) {
+                            return Ast.literal(NodeUtils.asString(targetNode) + suffix);
+                        }
+                    });
+                }
+            }
+
+            return transformations;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.quiltmc.chasm;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.internal.util.OrderedReleaser;
+
+/**
+ * Unit tests for writing the modified classes concurrently.
+ */
+public class ParallelWritingTests {
+    /**
+     * Writing classes on an executor should pass on the same results in the same order as writing them
+     * sequentially, without ever calling the consumer concurrently.
+     */
+    @Test
+    public void testMatchesSequentialOrder() {
+        List<ClassResult> parallel = TestFixtures.assertMatchesSequential(ParallelWritingTests::process);
+
+        Assertions.assertEquals(TestFixtures.CLASSES.size(), parallel.size());
+        for (ClassResult result : parallel) {
+            Assertions.assertEquals(ClassResult.Type.MODIFIED, result.getType());
+        }
+    }
+
+    /**
+     * Completing a value while the consumer is busy with an earlier one should not wait for the consumer,
+     * and values should still be passed on in order.
+     */
+    @Test
+    public void testReleaserDoesNotBlock() throws InterruptedException {
+        CountDownLatch consuming = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        List<Integer> consumed = Collections.synchronizedList(new ArrayList<>());
+        OrderedReleaser<String> releaser = new OrderedReleaser<>(3, (value, index) -> {
+            if (index == 0) {
+                consuming.countDown();
+                await(proceed);
+            }
+            consumed.add(index);
+        });
+
+        releaser.complete(1, "b");
+        Thread first = new Thread(() -> releaser.complete(0, "a"));
+        first.start();
+        await(consuming);
+
+        // The first thread is stuck in the consumer, so this must return right away
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> releaser.complete(2, "c"));
+        Assertions.assertEquals(Collections.emptyList(), consumed);
+
+        proceed.countDown();
+        first.join();
+        Assertions.assertEquals(List.of(0, 1, 2), consumed);
+    }
+
+    private static List<ClassResult> process(@Nullable Executor executor) {
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        processor.setExecutor(executor);
+        TestFixtures.addClasses(processor);
+        processor.addTransformer(new TestFixtures.SyntheticTransformer());
+
+        List<ClassResult> results = new ArrayList<>();
+        AtomicBoolean consuming = new AtomicBoolean();
+        processor.process(result -> {
+            Assertions.assertFalse(consuming.getAndSet(true), "Consumer called concurrently");
+            try {
+                // A slow consumer gives the writing threads the chance to overtake each other
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            results.add(result);
+            consuming.set(false);
+        });
+
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.quiltmc.chasm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.ProcessingListener;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
+/**
+ * Unit tests for {@link ProcessingListener}.
+ */
+public class ProcessingListenerTests {
+    private static final Path CLASS_FILE = Paths.get("build/classes/java/testData/empty/EmptyClass.class");
+
+    /**
+     * Every phase should be reported once, in order.
+     */
+    @Test
+    public void testReportsPhases() throws IOException {
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        processor.addClass(Files.readAllBytes(CLASS_FILE), new Metadata());
+        processor.addTransformer(new TestFixtures.SyntheticTransformer());
+
+        List<String> events = new ArrayList<>();
+        processor.addListener(new ProcessingListener() {
+            @Override
+            public void onIngest(int classCount, long nanos) {
+                events.add("ingest " + classCount);
+            }
+
+            @Override
+            public void onTransformerApplied(int round, String transformerId, int transformationCount, long nanos) {
+                events.add("transformer " + round + " " + transformerId + " " + transformationCount);
+            }
+
+            @Override
+            public void onTransformationsSorted(int round, int transformationCount, long nanos) {
+                events.add("sort " + round + " " + transformationCount);
+            }
+
+            @Override
+            public void onTransformationsApplied(int round, int transformationCount, int materializedClasses,
+                                                 long nanos) {
+                events.add("apply " + round + " " + transformationCount + " " + materializedClasses);
+            }
+
+            @Override
+            public void onClassWritten(String className, long nanos) {
+                events.add("write " + className);
+            }
+        });
+
+        List<ClassResult> results = processor.process();
+        Assertions.assertEquals(ClassResult.Type.MODIFIED, results.get(0).getType());
+        Assertions.assertEquals(List.of(
+                "ingest 1",
+                "transformer 0 synthetic 1",
+                "sort 0 1",
+                "apply 0 1 1",
+                "write empty/EmptyClass"
+        ), events);
+    }
+}
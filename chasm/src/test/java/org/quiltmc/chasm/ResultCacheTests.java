@@ -0,0 +1,259 @@
+package org.quiltmc.chasm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.Transformation;
+import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.util.CacheableMetadata;
+import org.quiltmc.chasm.api.util.Context;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
+/**
+ * Unit tests for caching the results of {@link ChasmProcessor}.
+ */
+public class ResultCacheTests {
+    private static final Path CLASS_FILE = Paths.get("build/classes/java/testData/empty/EmptyClass.class");
+
+    @TempDir
+    Path cacheDirectory;
+
+    /**
+     * A second run with the same inputs should use the cached results instead of applying transformers.
+     */
+    @Test
+    public void testReusesResults() throws IOException {
+        TestContext context = new TestContext("a");
+        CountingTransformer transformer = new CountingTransformer("key");
+
+        List<ClassResult> first = process(context, transformer);
+        List<ClassResult> second = process(context, transformer);
+
+        Assertions.assertEquals(1, transformer.applied);
+        assertSameResults(first, second);
+    }
+
+    /**
+     * A changed answer of {@link Context#readFile} should invalidate the cached results.
+     */
+    @Test
+    public void testInvalidatedByFiles() throws IOException {
+        CountingTransformer transformer = new CountingTransformer("key");
+
+        process(new TestContext("a"), transformer);
+        process(new TestContext("b"), transformer);
+        process(new TestContext("b"), transformer);
+
+        Assertions.assertEquals(2, transformer.applied);
+    }
+
+    /**
+     * A transformer with a different cache key should not reuse the cached results.
+     */
+    @Test
+    public void testInvalidatedByTransformers() throws IOException {
+        CountingTransformer transformer = new CountingTransformer("key");
+        CountingTransformer changedTransformer = new CountingTransformer("changed key");
+
+        process(new TestContext("a"), transformer);
+        process(new TestContext("a"), changedTransformer);
+
+        Assertions.assertEquals(1, transformer.applied);
+        Assertions.assertEquals(1, changedTransformer.applied);
+    }
+
+    /**
+     * Transformers without a cache key should always be applied.
+     */
+    @Test
+    public void testUncacheableTransformer() throws IOException {
+        CountingTransformer transformer = new CountingTransformer(null);
+
+        process(new TestContext("a"), transformer);
+        process(new TestContext("a"), transformer);
+
+        Assertions.assertEquals(2, transformer.applied);
+    }
+
+    /**
+     * Processing options that change the written classes should not reuse the cached results.
+     */
+    @Test
+    public void testInvalidatedByOptions() throws IOException {
+        CountingTransformer transformer = new CountingTransformer("key");
+
+        process(new TestContext("a"), transformer);
+        process(new TestContext("a"), transformer, processor -> processor.setCoalesceSlices(true));
+        process(new TestContext("a"), transformer, processor -> processor.setReuseUnmodified(false));
+        process(new TestContext("a"), transformer, processor -> processor.setReuseUnmodified(false));
+
+        Assertions.assertEquals(3, transformer.applied);
+    }
+
+    /**
+     * Metadata that transformers may depend on should be part of the key, other metadata should not.
+     */
+    @Test
+    public void testInvalidatedByMetadata() throws IOException {
+        CountingTransformer transformer = new CountingTransformer("key");
+        Consumer<ChasmProcessor> setup = processor -> {};
+
+        process(new TestContext("a"), transformer, setup, metadata("a", "ignored"));
+        process(new TestContext("a"), transformer, setup, metadata("a", "also ignored"));
+        process(new TestContext("a"), transformer, setup, metadata("b", "ignored"));
+
+        Assertions.assertEquals(2, transformer.applied);
+    }
+
+    /**
+     * Only the given number of runs should be kept in the cache directory.
+     */
+    @Test
+    public void testEvictsEntries() throws IOException {
+        CountingTransformer first = new CountingTransformer("first");
+        CountingTransformer second = new CountingTransformer("second");
+        Consumer<ChasmProcessor> setup = processor -> processor.setMaxCacheEntries(1);
+
+        process(new TestContext("a"), first, setup);
+        process(new TestContext("a"), second, setup);
+        process(new TestContext("a"), first, setup);
+        process(new TestContext("a"), first, setup);
+
+        Assertions.assertEquals(2, first.applied);
+        Assertions.assertEquals(1, second.applied);
+        try (Stream<Path> entries = Files.list(cacheDirectory)) {
+            Assertions.assertEquals(1, entries.count());
+        }
+    }
+
+    /**
+     * Cached and uncached results should both carry the metadata of their input classes.
+     */
+    @Test
+    public void testKeepsMetadata() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+        List<ClassResult> results = new ArrayList<>();
+        List<Metadata> metadata = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ChasmProcessor processor = new ChasmProcessor(new TestContext("a"));
+            processor.setCacheDirectory(cacheDirectory);
+            processor.addTransformer(new TestFixtures.SyntheticTransformer());
+            metadata.add(new Metadata());
+            processor.addClass(classBytes, metadata.get(i));
+            results.addAll(processor.process());
+        }
+
+        Assertions.assertEquals(2, results.size());
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertEquals(ClassResult.Type.MODIFIED, results.get(i).getType());
+            Assertions.assertSame(metadata.get(i), results.get(i).getMetadata());
+        }
+        Assertions.assertArrayEquals(results.get(0).getClassBytes(), results.get(1).getClassBytes());
+    }
+
+    private List<ClassResult> process(Context context, CountingTransformer transformer) throws IOException {
+        return process(context, transformer, processor -> {});
+    }
+
+    private List<ClassResult> process(Context context, CountingTransformer transformer,
+                                      Consumer<ChasmProcessor> setup) throws IOException {
+        return process(context, transformer, setup, new Metadata());
+    }
+
+    private List<ClassResult> process(Context context, CountingTransformer transformer,
+                                      Consumer<ChasmProcessor> setup, Metadata metadata) throws IOException {
+        ChasmProcessor processor = new ChasmProcessor(context);
+        processor.setCacheDirectory(cacheDirectory);
+        setup.accept(processor);
+        transformer.context = processor.getContext();
+        processor.addTransformer(transformer);
+        processor.addClass(Files.readAllBytes(CLASS_FILE), metadata);
+        return processor.process();
+    }
+
+    /**
+     * Creates metadata with one value that is part of the cache key and one that isn't.
+     */
+    private static Metadata metadata(String cacheKey, String other) {
+        Metadata metadata = new Metadata();
+        metadata.put(TestMetadata.class, new TestMetadata(cacheKey));
+        metadata.put(String.class, other);
+        return metadata;
+    }
+
+    private static void assertSameResults(List<ClassResult> expected, List<ClassResult> actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            Assertions.assertArrayEquals(expected.get(i).getClassBytes(), actual.get(i).getClassBytes());
+        }
+    }
+
+    private static class TestContext extends TestFixtures.EmptyContext {
+        private final String fileContent;
+
+        TestContext(String fileContent) {
+            this.fileContent = fileContent;
+        }
+
+        @Override
+        public byte @Nullable [] readFile(String path) {
+            return fileContent.getBytes();
+        }
+    }
+
+    private static class TestMetadata implements CacheableMetadata {
+        private final String cacheKey;
+
+        TestMetadata(String cacheKey) {
+            this.cacheKey = cacheKey;
+        }
+
+        @Override
+        public String getCacheKey() {
+            return cacheKey;
+        }
+    }
+
+    private static class CountingTransformer implements Transformer {
+        private final String cacheKey;
+        private Context context;
+        private int applied;
+
+        CountingTransformer(String cacheKey) {
+            this.cacheKey = cacheKey;
+        }
+
+        @Override
+        public Collection<Transformation> apply(ListNode classes) {
+            applied++;
+            context.readFile("file");
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getId() {
+            return "counting";
+        }
+
+        @Override
+        public @Nullable String getCacheKey() {
+            return cacheKey;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.quiltmc.chasm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.Transformation;
+import org.quiltmc.chasm.api.target.NodeTarget;
+import org.quiltmc.chasm.api.util.ClassFilter;
+import org.quiltmc.chasm.internal.util.NodeConstants;
+import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.lang.api.ast.Ast;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
+/**
+ * Unit tests for {@link ChasmProcessor#process(java.util.function.Consumer)} and lazily loaded classes.
+ */
+public class StreamingProcessorTests {
+    /**
+     * Streaming the results of classes added as suppliers should give the same results as processing the
+     * same classes added as byte arrays, both for modified and unmodified classes.
+     */
+    @Test
+    public void testMatchesProcess() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ChasmProcessor eager = createProcessor(executor);
+            TestFixtures.addClasses(eager);
+            Map<String, ClassResult> expected = byName(eager.process());
+
+            ChasmProcessor streaming = createProcessor(executor);
+            for (String name : TestFixtures.CLASSES) {
+                streaming.addClass(() -> TestFixtures.readClass(name), new Metadata());
+            }
+
+            Map<String, ClassResult> actual = new HashMap<>();
+            AtomicInteger running = new AtomicInteger();
+            streaming.process(result -> {
+                Assertions.assertEquals(1, running.incrementAndGet(), "Consumer called concurrently");
+                Assertions.assertNull(actual.put(getName(result), result));
+                running.decrementAndGet();
+            });
+
+            Assertions.assertEquals(expected.keySet(), actual.keySet());
+            for (Map.Entry<String, ClassResult> entry : expected.entrySet()) {
+                ClassResult result = actual.get(entry.getKey());
+                Assertions.assertEquals(entry.getValue().getType(), result.getType(), entry.getKey());
+                Assertions.assertArrayEquals(entry.getValue().getClassBytes(), result.getClassBytes(), entry.getKey());
+            }
+
+            Assertions.assertEquals(ClassResult.Type.MODIFIED, actual.get("other/TestLocalVariables").getType());
+            Assertions.assertEquals(ClassResult.Type.UNMODIFIED, actual.get("other/ExampleClass").getType());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * With several rounds, unmodified classes that no later transformer selects should be passed on
+     * before the later rounds are applied.
+     */
+    @Test
+    public void testPassesOnBeforeLastRound() {
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        TestFixtures.addClasses(processor);
+
+        List<String> passedOn = new ArrayList<>();
+        List<String> passedOnBeforeSecondRound = new ArrayList<>();
+        processor.addTransformer(new MethodRenamer("first", "mergeVariable", "renamedMethod"));
+        processor.addTransformer(new MethodRenamer("second", "renamedMethod", "secondMethod") {
+            @Override
+            public Collection<Transformation> apply(ListNode classes) {
+                passedOnBeforeSecondRound.addAll(passedOn);
+                return super.apply(classes);
+            }
+
+            @Override
+            public Set<String> mustRunRoundAfter(Set<String> transformerIds) {
+                return Set.of("first");
+            }
+        });
+        processor.process(result -> passedOn.add(getName(result)));
+
+        List<String> unmodified = new ArrayList<>(TestFixtures.CLASSES);
+        unmodified.remove("other/TestLocalVariables");
+        Assertions.assertEquals(unmodified, passedOnBeforeSecondRound);
+        Assertions.assertEquals(TestFixtures.CLASSES.size(), passedOn.size());
+        Assertions.assertEquals("other/TestLocalVariables", passedOn.get(passedOn.size() - 1));
+    }
+
+    /**
+     * Renames a method of a single class, so the other classes stay unmodified.
+     */
+    private static ChasmProcessor createProcessor(ExecutorService executor) {
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        processor.setExecutor(executor);
+        processor.addTransformer(new MethodRenamer("rename", "mergeVariable", "renamedMethod"));
+        return processor;
+    }
+
+    private static Node getMethodName(ListNode classes, String className, String methodName) {
+        for (Node classNode : classes.getEntries()) {
+            if (!className.equals(NodeUtils.getAsString(classNode, NodeConstants.NAME))) {
+                continue;
+            }
+
+            for (Node method : NodeUtils.getAsList(classNode, NodeConstants.METHODS).getEntries()) {
+                Node name = NodeUtils.asMap(method).get(NodeConstants.NAME);
+                if (methodName.equals(NodeUtils.asString(name))) {
+                    return name;
+                }
+            }
+        }
+
+        throw new AssertionError("Missing method " + className + "." + methodName);
+    }
+
+    private static Map<String, ClassResult> byName(List<ClassResult> results) {
+        Map<String, ClassResult> map = new HashMap<>();
+        for (ClassResult result : results) {
+            Assertions.assertNull(map.put(getName(result), result));
+        }
+        return map;
+    }
+
+    private static String getName(ClassResult result) {
+        return new ClassReader(result.getClassBytes()).getClassName();
+    }
+
+    /**
+     * Renames a method of {@code other/TestLocalVariables}, and only selects that class.
+     */
+    private static class MethodRenamer extends TestFixtures.TargetTransformer {
+        private final String id;
+
+        MethodRenamer(String id, String from, String to) {
+            super(
+                    classes -> new NodeTarget(getMethodName(classes, "other/TestLocalVariables", from)),
+                    node -> Ast.literal(to)
+            );
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public @Nullable ClassFilter getClassFilter() {
+            return ClassFilter.classes("other/TestLocalVariables");
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.quiltmc.chasm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.objectweb.asm.Opcodes;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.Transformation;
+import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.target.NodeTarget;
+import org.quiltmc.chasm.api.target.Target;
+import org.quiltmc.chasm.api.util.ClassInfo;
+import org.quiltmc.chasm.api.util.Context;
+import org.quiltmc.chasm.internal.util.NodeConstants;
+import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.lang.api.ast.Ast;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
+/**
+ * Classes, contexts and transformers shared by the tests.
+ */
+final class TestFixtures {
+    private static final Path CLASSES_DIR = Paths.get("build/classes/java/testData");
+
+    /**
+     * Test data classes of different kinds, in the order they are added by {@link #addClasses}.
+     */
+    static final List<String> CLASSES = List.of(
+            "empty/EmptyClass",
+            "empty/EmptyInterface",
+            "empty/EmptyRecord",
+            "other/ExampleAnnotation",
+            "other/ExampleClass",
+            "other/ExampleEnum",
+            "other/TestLocalVariables",
+            "other/TestMergeInsns"
+    );
+
+    private TestFixtures() {
+    }
+
+    /**
+     * Reads the bytes of a compiled test data class.
+     */
+    static byte[] readClass(String name) {
+        try {
+            return Files.readAllBytes(CLASSES_DIR.resolve(name + ".class"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds all {@link #CLASSES} to the processor.
+     */
+    static void addClasses(ChasmProcessor processor) {
+        for (String name : CLASSES) {
+            processor.addClass(readClass(name), new Metadata());
+        }
+    }
+
+    /**
+     * Processes once without and once with an executor, and checks that both give the same results in the same
+     * order. Returns the results of processing with the executor.
+     */
+    static List<ClassResult> assertMatchesSequential(Function<@Nullable Executor, List<ClassResult>> process) {
+        List<ClassResult> sequential = process.apply(null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<ClassResult> parallel = process.apply(executor);
+
+            Assertions.assertEquals(sequential.size(), parallel.size());
+            for (int i = 0; i < sequential.size(); i++) {
+                Assertions.assertEquals(sequential.get(i).getType(), parallel.get(i).getType());
+                Assertions.assertArrayEquals(sequential.get(i).getClassBytes(), parallel.get(i).getClassBytes());
+            }
+
+            return parallel;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * A context that doesn't know any classes or files.
+     */
+    static class EmptyContext implements Context {
+        @Override
+        public @Nullable ClassInfo getClassInfo(String className) {
+            return null;
+        }
+
+        @Override
+        public byte @Nullable [] readFile(String path) {
+            return null;
+        }
+    }
+
+    /**
+     * A context that knows the classes on the class path of the tests, but no files.
+     */
+    static class ClassPathContext extends EmptyContext {
+        @Override
+        public @Nullable ClassInfo getClassInfo(String className) {
+            try {
+                return ClassInfo.fromClass(Class.forName(className, false, getClass().getClassLoader()));
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Replaces the target chosen by one function with the result of another function.
+     */
+    static class TargetTransformer implements Transformer {
+        private final Function<ListNode, Target> target;
+        private final UnaryOperator<Node> function;
+
+        TargetTransformer(Function<ListNode, Target> target, UnaryOperator<Node> function) {
+            this.target = target;
+            this.function = function;
+        }
+
+        @Override
+        public Collection<Transformation> apply(ListNode classes) {
+            Target chosen = target.apply(classes);
+            return List.of(new Transformation() {
+                @Override
+                public Transformer getParent() {
+                    return TargetTransformer.this;
+                }
+
+                @Override
+                public Target getTarget() {
+                    return chosen;
+                }
+
+                @Override
+                public Node apply(Node targetNode, Map<String, Node> nodeSources) {
+                    return function.apply(targetNode);
+                }
+            });
+        }
+
+        @Override
+        public String getId() {
+            return "target";
+        }
+    }
+
+    /**
+     * Marks every class as synthetic.
+     */
+    static class SyntheticTransformer implements Transformer {
+        @Override
+        public Collection<Transformation> apply(ListNode classes) {
+            List<Transformation> transformations = new ArrayList<>();
+            for (Node classNode : classes.getEntries()) {
+                Node access = NodeUtils.asMap(classNode).get(NodeConstants.ACCESS);
+                transformations.add(new Transformation() {
+                    @Override
+                    public Transformer getParent() {
+                        return SyntheticTransformer.this;
+                    }
+
+                    @Override
+                    public Target getTarget() {
+                        return new NodeTarget(access);
+                    }
+
+                    @Override
+                    public Node apply(Node targetNode, Map<String, Node> nodeSources) {
+                        return Ast.literal(NodeUtils.asInt(targetNode) | Opcodes.ACC_SYNTHETIC);
+                    }
+                });
+            }
+
+            return transformations;
+        }
+
+        @Override
+        public String getId() {
+            return "synthetic";
+        }
+
+        @Override
+        public @Nullable String getCacheKey() {
+            return "synthetic";
+        }
+    }
+}
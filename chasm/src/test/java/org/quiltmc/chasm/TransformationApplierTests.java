@@ -0,0 +1,379 @@
+package org.quiltmc.chasm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.quiltmc.chasm.api.ChasmProcessor;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.api.Transformation;
+import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.target.NodeTarget;
+import org.quiltmc.chasm.api.target.SliceTarget;
+import org.quiltmc.chasm.api.target.Target;
+import org.quiltmc.chasm.api.util.ClassInfo;
+import org.quiltmc.chasm.api.util.ClassOrigin;
+import org.quiltmc.chasm.internal.ChasmContext;
+import org.quiltmc.chasm.internal.TransformationApplier;
+import org.quiltmc.chasm.internal.metadata.ChangeMetadata;
+import org.quiltmc.chasm.internal.metadata.PathMetadata;
+import org.quiltmc.chasm.internal.tree.ClassNode;
+import org.quiltmc.chasm.internal.util.NodeConstants;
+import org.quiltmc.chasm.internal.util.NodeUtils;
+import org.quiltmc.chasm.lang.api.ast.Ast;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.MapNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
+/**
+ * Unit tests for {@link TransformationApplier}.
+ */
+public class TransformationApplierTests {
+    private static final Path CLASS_FILE = Paths.get("build/classes/java/testData/other/ExampleClass.class");
+    private static final Path OTHER_CLASS_FILE = Paths.get("build/classes/java/testData/empty/EmptyClass.class");
+    private static final Transformer TRANSFORMER = new ClassTransformer();
+
+    /**
+     * Replacing a whole class should write the replacement.
+     */
+    @Test
+    public void testReplaceClass() throws IOException {
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        processor.addClass(Files.readAllBytes(CLASS_FILE), new Metadata());
+        processor.addTransformer(new ClassTransformer());
+
+        List<ClassResult> results = processor.process();
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals(ClassResult.Type.MODIFIED, results.get(0).getType());
+
+        ClassReader reader = new ClassReader(results.get(0).getClassBytes());
+        Assertions.assertEquals("other/ExampleClass", reader.getClassName());
+        Assertions.assertNotEquals(0, reader.getAccess() & Opcodes.ACC_SYNTHETIC);
+    }
+
+    /**
+     * A written class should be passed on with the metadata of its input class,
+     * without the internal metadata of the transformed class node.
+     */
+    @Test
+    public void testResultMetadata() throws IOException {
+        Metadata metadata = new Metadata();
+        ClassOrigin origin = new ClassOrigin(Paths.get("input.jar"), "other/ExampleClass.class");
+        metadata.put(ClassOrigin.class, origin);
+
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        processor.addClass(Files.readAllBytes(CLASS_FILE), metadata);
+        processor.addTransformer(new ClassTransformer());
+
+        List<ClassResult> results = processor.process();
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals(ClassResult.Type.MODIFIED, results.get(0).getType());
+        Assertions.assertSame(metadata, results.get(0).getMetadata());
+        Assertions.assertSame(origin, results.get(0).getMetadata().get(ClassOrigin.class));
+        Assertions.assertNull(results.get(0).getMetadata().get(ChangeMetadata.class));
+        Assertions.assertNull(results.get(0).getMetadata().get(PathMetadata.class));
+    }
+
+    /**
+     * Editing nodes in place and returning them should still modify the class,
+     * even if the edited node is an unchanged method that could otherwise be copied.
+     */
+    @Test
+    public void testEditInPlace() throws IOException {
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        processor.addClass(Files.readAllBytes(CLASS_FILE), new Metadata());
+        processor.addTransformer(new TestFixtures.TargetTransformer(
+                classes -> new NodeTarget(NodeUtils.getAsList(classes.get(0), NodeConstants.METHODS)),
+                node -> {
+                    MapNode method = NodeUtils.asMap(NodeUtils.asList(node).get(0));
+                    int access = NodeUtils.getAsInt(method, NodeConstants.ACCESS);
+                    method.put(NodeConstants.ACCESS, Ast.literal(access | Opcodes.ACC_SYNTHETIC));
+                    return node;
+                }
+        ));
+
+        List<ClassResult> results = processor.process();
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals(ClassResult.Type.MODIFIED, results.get(0).getType());
+
+        org.objectweb.asm.tree.ClassNode classNode = new org.objectweb.asm.tree.ClassNode();
+        new ClassReader(results.get(0).getClassBytes()).accept(classNode, 0);
+        Assertions.assertNotEquals(0, classNode.methods.get(0).access & Opcodes.ACC_SYNTHETIC);
+    }
+
+    /**
+     * A class whose nodes are replaced with equal nodes should keep its original bytes.
+     */
+    @Test
+    public void testEqualReplacementUnmodified() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+        ChasmProcessor processor = new ChasmProcessor(new TestFixtures.EmptyContext());
+        processor.addClass(classBytes, new Metadata());
+        processor.addTransformer(new TestFixtures.TargetTransformer(
+                classes -> new NodeTarget(NodeUtils.asMap(classes.get(0)).get(NodeConstants.ACCESS)),
+                node -> Ast.literal(NodeUtils.asInt(node))
+        ));
+
+        List<ClassResult> results = processor.process();
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals(ClassResult.Type.UNMODIFIED, results.get(0).getType());
+        Assertions.assertArrayEquals(classBytes, results.get(0).getClassBytes());
+    }
+
+    /**
+     * A class renamed by a transformation should be found by its new name in the same round.
+     */
+    @Test
+    public void testRenamedClassFound() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+        byte[] otherClassBytes = Files.readAllBytes(OTHER_CLASS_FILE);
+        ListNode classes = Ast.emptyList();
+        ChasmContext context = new ChasmContext(new TestFixtures.EmptyContext(), classes);
+        classes.add(new ClassNode(() -> classBytes, context, 0));
+        classes.add(new ClassNode(() -> otherClassBytes, context, 1));
+        context.refresh();
+
+        ClassInfo[] found = new ClassInfo[1];
+        Transformation rename = new NodeTransformation(NodeUtils.asMap(classes.get(0)).get(NodeConstants.NAME),
+                node -> Ast.literal("other/RenamedClass"));
+        Transformation lookup = new NodeTransformation(NodeUtils.asMap(classes.get(1)).get(NodeConstants.ACCESS),
+                node -> {
+                    found[0] = context.getClassInfo("other/RenamedClass");
+                    return node;
+                });
+
+        TransformationApplier applier = new TransformationApplier(classes, List.of(rename, lookup));
+        applier.setContext(context);
+        applier.applyAll();
+
+        Assertions.assertNotNull(found[0]);
+        Assertions.assertEquals("other/RenamedClass", found[0].getClassName());
+        Assertions.assertNull(context.getClassInfo("other/ExampleClass"));
+    }
+
+    /**
+     * Replacing a node should drop the cached resolutions of the nodes inside it,
+     * so later targets inside it resolve to the nodes of the replacement.
+     */
+    @Test
+    public void testResolveAfterAncestorReplaced() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+        ListNode classes = Ast.emptyList();
+        ChasmContext context = new ChasmContext(new TestFixtures.EmptyContext(), classes);
+        classes.add(new ClassNode(() -> classBytes, context, 0));
+
+        ListNode fields = NodeUtils.getAsList(classes.get(0), NodeConstants.FIELDS);
+        Node name = NodeUtils.asMap(fields.get(0)).get(NodeConstants.NAME);
+
+        // The first transformation caches the resolved name, the second one replaces the field containing it
+        Transformation rename = new NodeTransformation(name, node -> Ast.literal("renamedField"));
+        Transformation replace = new NodeTransformation(fields.get(0),
+                node -> Ast.map().put(NodeConstants.NAME, "replacedField").build());
+        Transformation suffix = new NodeTransformation(name,
+                node -> Ast.literal(NodeUtils.asString(node) + "Suffix"));
+
+        new TransformationApplier(classes, List.of(rename, replace, suffix)).applyAll();
+
+        ListNode result = NodeUtils.getAsList(classes.get(0), NodeConstants.FIELDS);
+        Assertions.assertEquals("replacedFieldSuffix", NodeUtils.getAsString(result.get(0), NodeConstants.NAME));
+        Assertions.assertEquals(fields.size(), result.size());
+    }
+
+    /**
+     * Entries inserted into a list should shift the cached resolutions of later entries,
+     * so they still resolve to the same nodes.
+     */
+    @Test
+    public void testResolveThroughShiftedList() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+        ListNode classes = Ast.emptyList();
+        ChasmContext context = new ChasmContext(new TestFixtures.EmptyContext(), classes);
+        classes.add(new ClassNode(() -> classBytes, context, 0));
+
+        ListNode fields = NodeUtils.getAsList(classes.get(0), NodeConstants.FIELDS);
+        String firstName = NodeUtils.getAsString(fields.get(0), NodeConstants.NAME);
+        Node name = NodeUtils.asMap(fields.get(1)).get(NodeConstants.NAME);
+
+        // The first transformation caches the resolved name, the second one shifts the field containing it
+        Transformation rename = new NodeTransformation(name, node -> Ast.literal("renamedField"));
+        Transformation insert = new SliceTransformation(new SliceTarget(fields, 0, 0), Ast.list(
+                Ast.map().put(NodeConstants.NAME, "firstField").build(),
+                Ast.map().put(NodeConstants.NAME, "secondField").build()
+        ));
+        Transformation suffix = new NodeTransformation(name,
+                node -> Ast.literal(NodeUtils.asString(node) + "Suffix"));
+
+        new TransformationApplier(classes, List.of(rename, insert, suffix)).applyAll();
+
+        ListNode result = NodeUtils.getAsList(classes.get(0), NodeConstants.FIELDS);
+        Assertions.assertEquals(fields.size() + 2, result.size());
+        Assertions.assertEquals(firstName, NodeUtils.getAsString(result.get(2), NodeConstants.NAME));
+        Assertions.assertEquals("renamedFieldSuffix", NodeUtils.getAsString(result.get(3), NodeConstants.NAME));
+    }
+
+    /**
+     * Entries inserted into a list should shift later targets into that list,
+     * even if those were created from recomputed lazy entries of the class, with new path instances.
+     */
+    @Test
+    public void testShiftRecomputedPaths() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+        ListNode classes = Ast.emptyList();
+        ChasmContext context = new ChasmContext(new TestFixtures.EmptyContext(), classes);
+        ClassNode classNode = new ClassNode(() -> classBytes, context, 0);
+        classes.add(classNode);
+
+        // Reading the same class again gives the entries it would get after its lazy entries were collected
+        ClassNode recomputed = new ClassNode(() -> classBytes, context, 0);
+        ListNode fields = NodeUtils.getAsList(classNode, NodeConstants.FIELDS);
+        ListNode recomputedFields = NodeUtils.getAsList(recomputed, NodeConstants.FIELDS);
+        Assertions.assertNotSame(fields.get(0).getMetadata().get(PathMetadata.class),
+                recomputedFields.get(0).getMetadata().get(PathMetadata.class));
+
+        Transformation insert = new SliceTransformation(new SliceTarget(fields, 0, 0),
+                Ast.list(Ast.map().put(NodeConstants.NAME, "insertedField").build()));
+        Transformation rename = new NodeTransformation(NodeUtils.asMap(recomputedFields.get(0)).get(NodeConstants.NAME),
+                node -> Ast.literal("renamedField"));
+
+        new TransformationApplier(classes, List.of(insert, rename)).applyAll();
+
+        ListNode result = NodeUtils.getAsList(classes.get(0), NodeConstants.FIELDS);
+        Assertions.assertEquals("insertedField", NodeUtils.getAsString(result.get(0), NodeConstants.NAME));
+        Assertions.assertEquals("renamedField", NodeUtils.getAsString(result.get(1), NodeConstants.NAME));
+        Assertions.assertEquals(recomputedFields.size() + 1, result.size());
+    }
+
+    /**
+     * A slice replacement conflicting with deferred replacements of the same list should be applied after them,
+     * also if it targets the list through recomputed paths.
+     */
+    @Test
+    public void testCoalesceRecomputedPaths() throws IOException {
+        byte[] classBytes = Files.readAllBytes(CLASS_FILE);
+        ListNode classes = Ast.emptyList();
+        ChasmContext context = new ChasmContext(new TestFixtures.EmptyContext(), classes);
+        ClassNode classNode = new ClassNode(() -> classBytes, context, 0);
+        classes.add(classNode);
+
+        ClassNode recomputed = new ClassNode(() -> classBytes, context, 0);
+        ListNode fields = NodeUtils.getAsList(classNode, NodeConstants.FIELDS);
+        ListNode recomputedFields = NodeUtils.getAsList(recomputed, NodeConstants.FIELDS);
+        final String secondName = NodeUtils.getAsString(recomputedFields.get(1), NodeConstants.NAME);
+        final String thirdName = NodeUtils.getAsString(recomputedFields.get(2), NodeConstants.NAME);
+
+        Transformation insert = new SliceTransformation(new SliceTarget(fields, 0, 0),
+                Ast.list(Ast.map().put(NodeConstants.NAME, "insertedField").build()));
+        Transformation remove = new SliceTransformation(new SliceTarget(recomputedFields, 0, 2), Ast.emptyList());
+
+        TransformationApplier applier = new TransformationApplier(classes, List.of(insert, remove));
+        applier.setCoalesceSlices(true);
+        applier.applyAll();
+
+        ListNode result = NodeUtils.getAsList(classes.get(0), NodeConstants.FIELDS);
+        Assertions.assertEquals(recomputedFields.size(), result.size());
+        Assertions.assertEquals("insertedField", NodeUtils.getAsString(result.get(0), NodeConstants.NAME));
+        Assertions.assertEquals(secondName, NodeUtils.getAsString(result.get(1), NodeConstants.NAME));
+        Assertions.assertEquals(thirdName, NodeUtils.getAsString(result.get(2), NodeConstants.NAME));
+    }
+
+    /**
+     * Replaces the first class with a synthetic copy of it.
+     */
+    private static class ClassTransformer implements Transformer {
+        @Override
+        public Collection<Transformation> apply(ListNode classes) {
+            Node classNode = classes.get(0);
+            return List.of(new Transformation() {
+                @Override
+                public Transformer getParent() {
+                    return ClassTransformer.this;
+                }
+
+                @Override
+                public Target getTarget() {
+                    return new NodeTarget(classNode);
+                }
+
+                @Override
+                public Node apply(Node targetNode, Map<String, Node> nodeSources) {
+                    MapNode copy = new MapNode(new LinkedHashMap<>(NodeUtils.asMap(targetNode).getEntries()));
+                    int access = NodeUtils.getAsInt(copy, NodeConstants.ACCESS);
+                    copy.put(NodeConstants.ACCESS, Ast.literal(access | Opcodes.ACC_SYNTHETIC));
+                    return copy;
+                }
+            });
+        }
+
+        @Override
+        public String getId() {
+            return "class";
+        }
+    }
+
+    /**
+     * Replaces a single node using the given function.
+     */
+    private static class NodeTransformation implements Transformation {
+        private final Node target;
+        private final UnaryOperator<Node> function;
+
+        NodeTransformation(Node target, UnaryOperator<Node> function) {
+            this.target = target;
+            this.function = function;
+        }
+
+        @Override
+        public Transformer getParent() {
+            return TRANSFORMER;
+        }
+
+        @Override
+        public Target getTarget() {
+            return new NodeTarget(target);
+        }
+
+        @Override
+        public Node apply(Node targetNode, Map<String, Node> nodeSources) {
+            return function.apply(targetNode);
+        }
+    }
+
+    /**
+     * Replaces a slice with the given entries.
+     */
+    private static class SliceTransformation implements Transformation {
+        private final SliceTarget target;
+        private final ListNode replacement;
+
+        SliceTransformation(SliceTarget target, ListNode replacement) {
+            this.target = target;
+            this.replacement = replacement;
+        }
+
+        @Override
+        public Transformer getParent() {
+            return TRANSFORMER;
+        }
+
+        @Override
+        public Target getTarget() {
+            return target;
+        }
+
+        @Override
+        public Node apply(Node targetNode, Map<String, Node> nodeSources) {
+            return replacement;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package org.quiltmc.chasm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.quiltmc.chasm.api.Transformation;
+import org.quiltmc.chasm.api.Transformer;
+import org.quiltmc.chasm.api.target.NodeTarget;
+import org.quiltmc.chasm.api.target.SliceTarget;
+import org.quiltmc.chasm.api.target.Target;
+import org.quiltmc.chasm.internal.TransformationSorter;
+import org.quiltmc.chasm.internal.metadata.PathMetadata;
+import org.quiltmc.chasm.internal.util.PathInitializer;
+import org.quiltmc.chasm.lang.api.ast.Ast;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+
+/**
+ * Unit tests for {@link TransformationSorter}.
+ */
+public class TransformationSorterTests {
+    /**
+     * Transformations should be sorted after the transformations of transformers they must run after,
+     * and otherwise keep their order.
+     */
+    @Test
+    public void testTransformerOrder() {
+        DummyTransformer late = new DummyTransformer("late", Set.of("early"));
+        DummyTransformer early = new DummyTransformer("early", Set.of());
+
+        List<Transformation> transformations = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            transformations.add(new DummyTransformation(i % 2 == 0 ? late : early, i));
+        }
+
+        List<Transformation> sorted = TransformationSorter.sort(transformations);
+        Assertions.assertEquals(List.of(
+                transformations.get(1),
+                transformations.get(3),
+                transformations.get(5),
+                transformations.get(0),
+                transformations.get(2),
+                transformations.get(4)
+        ), sorted);
+    }
+
+    /**
+     * Sorting should reject transformations whose transformers must run after each other.
+     */
+    @Test
+    public void testRejectsLoop() {
+        DummyTransformer a = new DummyTransformer("a", Set.of("b"));
+        DummyTransformer b = new DummyTransformer("b", Set.of("a"));
+
+        Assertions.assertThrows(RuntimeException.class, () -> TransformationSorter.sort(List.of(
+                new DummyTransformation(a, 0),
+                new DummyTransformation(b, 1)
+        )));
+    }
+
+    /**
+     * Transformations of a slice should be sorted after the transformations of entries inside of it.
+     */
+    @Test
+    public void testSliceContainsNode() {
+        DummyTransformer transformer = new DummyTransformer("transformer", Set.of());
+        ListNode list = Ast.list(0, 1, 2, 3);
+        PathInitializer.initialize(list, new PathMetadata(null, 0));
+
+        Transformation outer = new DummyTransformation(transformer, new SliceTarget(list, 2, 7));
+        Transformation inner = new DummyTransformation(transformer, new NodeTarget(list.get(2)));
+        Transformation outside = new DummyTransformation(transformer, new NodeTarget(list.get(0)));
+
+        List<Transformation> sorted = TransformationSorter.sort(List.of(outer, inner, outside));
+        Assertions.assertEquals(List.of(inner, outer, outside), sorted);
+    }
+
+    /**
+     * Transformations of nested slices should be sorted from the innermost slice outwards.
+     */
+    @Test
+    public void testNestedSlices() {
+        DummyTransformer transformer = new DummyTransformer("transformer", Set.of());
+        ListNode list = createLists(1)[0];
+
+        Transformation outer = new DummyTransformation(transformer, new SliceTarget(list, 0, 7));
+        Transformation inner = new DummyTransformation(transformer, new SliceTarget(list, 2, 5));
+        Transformation entry = new DummyTransformation(transformer, new NodeTarget(list.get(1)));
+
+        List<Transformation> sorted = TransformationSorter.sort(List.of(outer, inner, entry));
+        Assertions.assertEquals(List.of(entry, inner, outer), sorted);
+    }
+
+    /**
+     * Slices that partially overlap each other can't be sorted.
+     */
+    @Test
+    public void testRejectsOverlappingSlices() {
+        DummyTransformer transformer = new DummyTransformer("transformer", Set.of());
+        ListNode list = createLists(1)[0];
+
+        Assertions.assertThrows(RuntimeException.class, () -> TransformationSorter.sort(List.of(
+                new DummyTransformation(transformer, new SliceTarget(list, 0, 5)),
+                new DummyTransformation(transformer, new SliceTarget(list, 3, 8))
+        )));
+    }
+
+    /**
+     * Zero-length slices inside a slice should be sorted before it, while those at its bounds are independent of it.
+     */
+    @Test
+    public void testZeroLengthSlices() {
+        DummyTransformer transformer = new DummyTransformer("transformer", Set.of());
+        ListNode list = createLists(1)[0];
+
+        Transformation slice = new DummyTransformation(transformer, new SliceTarget(list, 2, 7));
+        Transformation atStart = new DummyTransformation(transformer, new SliceTarget(list, 2, 2));
+        Transformation inside = new DummyTransformation(transformer, new SliceTarget(list, 4, 4));
+        Transformation atEnd = new DummyTransformation(transformer, new SliceTarget(list, 7, 7));
+
+        List<Transformation> sorted = TransformationSorter.sort(List.of(slice, atStart, inside, atEnd));
+        Assertions.assertEquals(List.of(atStart, inside, slice, atEnd), sorted);
+    }
+
+    /**
+     * A transformation reading a slice should preferably be sorted after the transformations targeting its entries,
+     * unless something else requires the opposite order.
+     */
+    @Test
+    public void testSourceSliceContainsNode() {
+        DummyTransformer reader = new DummyTransformer("reader", Set.of());
+        DummyTransformer writer = new DummyTransformer("writer", Set.of());
+        DummyTransformer lateWriter = new DummyTransformer("lateWriter", Set.of("reader"));
+        ListNode[] lists = createLists(2);
+
+        Transformation read = new DummyTransformation(reader, new NodeTarget(lists[1].get(0)),
+                Map.of("slice", new SliceTarget(lists[0], 0, 5)));
+        Transformation write = new DummyTransformation(writer, new NodeTarget(lists[0].get(1)));
+        Transformation lateWrite = new DummyTransformation(lateWriter, new NodeTarget(lists[0].get(1)));
+
+        Assertions.assertEquals(List.of(write, read), TransformationSorter.sort(List.of(read, write)));
+        Assertions.assertEquals(List.of(read, lateWrite), TransformationSorter.sort(List.of(read, lateWrite)));
+    }
+
+    /**
+     * If only soft dependencies remain, those of the transformation with the fewest of them should be broken.
+     */
+    @Test
+    public void testBreaksFewestSoftDependencies() {
+        DummyTransformer transformer = new DummyTransformer("transformer", Set.of());
+        ListNode[] lists = createLists(3);
+
+        // The first reads the other lists, which each read the first list
+        Transformation first = new DummyTransformation(transformer, new NodeTarget(lists[0].get(0)),
+                Map.of("second", new NodeTarget(lists[1]), "third", new NodeTarget(lists[2])));
+        Transformation second = new DummyTransformation(transformer, new NodeTarget(lists[1].get(0)),
+                Map.of("first", new NodeTarget(lists[0])));
+        Transformation third = new DummyTransformation(transformer, new NodeTarget(lists[2].get(0)),
+                Map.of("first", new NodeTarget(lists[0])));
+
+        List<Transformation> sorted = TransformationSorter.sort(List.of(first, second, third));
+        Assertions.assertEquals(List.of(second, first, third), sorted);
+    }
+
+    /**
+     * Transformations that were already sorted when their outdated soft dependency count comes up
+     * should not be sorted again.
+     */
+    @Test
+    public void testSkipsSortedSoftEntries() {
+        DummyTransformer transformer = new DummyTransformer("transformer", Set.of());
+        ListNode[] lists = createLists(6);
+
+        // Same as above, the first is sorted with one of its initial two soft dependencies left
+        List<Transformation> transformations = new ArrayList<>();
+        transformations.add(new DummyTransformation(transformer, new NodeTarget(lists[0].get(0)),
+                Map.of("second", new NodeTarget(lists[1]), "third", new NodeTarget(lists[2]))));
+        transformations.add(new DummyTransformation(transformer, new NodeTarget(lists[1].get(0)),
+                Map.of("first", new NodeTarget(lists[0]))));
+        transformations.add(new DummyTransformation(transformer, new NodeTarget(lists[2].get(0)),
+                Map.of("first", new NodeTarget(lists[0]))));
+
+        // Each reads both others, so two soft dependencies have to be broken again afterwards
+        for (int i = 3; i < 6; i++) {
+            int other = i == 3 ? 4 : 3;
+            int last = i == 5 ? 4 : 5;
+            transformations.add(new DummyTransformation(transformer, new NodeTarget(lists[i].get(0)),
+                    Map.of("other", new NodeTarget(lists[other]), "last", new NodeTarget(lists[last]))));
+        }
+
+        List<Transformation> sorted = TransformationSorter.sort(transformations);
+        Assertions.assertEquals(List.of(
+                transformations.get(1),
+                transformations.get(0),
+                transformations.get(2),
+                transformations.get(3),
+                transformations.get(4),
+                transformations.get(5)
+        ), sorted);
+    }
+
+    /**
+     * Transformations with the same number of soft dependencies should be broken by their position in the input.
+     */
+    @Test
+    public void testBreaksSoftDependenciesInOrder() {
+        DummyTransformer transformer = new DummyTransformer("transformer", Set.of());
+        ListNode[] lists = createLists(2);
+
+        Transformation first = new DummyTransformation(transformer, new NodeTarget(lists[0].get(0)),
+                Map.of("second", new NodeTarget(lists[1])));
+        Transformation second = new DummyTransformation(transformer, new NodeTarget(lists[1].get(0)),
+                Map.of("first", new NodeTarget(lists[0])));
+
+        Assertions.assertEquals(List.of(first, second), TransformationSorter.sort(List.of(first, second)));
+        Assertions.assertEquals(List.of(second, first), TransformationSorter.sort(List.of(second, first)));
+    }
+
+    /**
+     * Creates lists of a few entries, each as if it were a class with the index in the returned array.
+     */
+    private static ListNode[] createLists(int count) {
+        ListNode[] lists = new ListNode[count];
+        for (int i = 0; i < count; i++) {
+            lists[i] = Ast.list(0, 1, 2, 3);
+            PathInitializer.initialize(lists[i], new PathMetadata(null, i));
+        }
+
+        return lists;
+    }
+
+    private static class DummyTransformer implements Transformer {
+        private final String id;
+        private final Set<String> runAfter;
+
+        DummyTransformer(String id, Set<String> runAfter) {
+            this.id = id;
+            this.runAfter = runAfter;
+        }
+
+        @Override
+        public Collection<Transformation> apply(ListNode classes) {
+            return List.of();
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public Set<String> mustRunAfter(Set<String> transformerIds) {
+            return runAfter;
+        }
+    }
+
+    private static class DummyTransformation implements Transformation {
+        private final Transformer parent;
+        private final Target target;
+        private final Map<String, Target> sources;
+
+        DummyTransformation(Transformer parent, Target target, Map<String, Target> sources) {
+            this.parent = parent;
+            this.target = target;
+            this.sources = sources;
+        }
+
+        DummyTransformation(Transformer parent, Target target) {
+            this(parent, target, Map.of());
+        }
+
+        DummyTransformation(Transformer parent, int index) {
+            this.parent = parent;
+            Node node = Ast.literal(index);
+            node.getMetadata().put(PathMetadata.class, new PathMetadata(null, index));
+            this.target = new NodeTarget(node);
+            this.sources = Map.of();
+        }
+
+        @Override
+        public Transformer getParent() {
+            return parent;
+        }
+
+        @Override
+        public Target getTarget() {
+            return target;
+        }
+
+        @Override
+        public Map<String, Target> getSources() {
+            return sources;
+        }
+
+        @Override
+        public Node apply(Node targetNode, Map<String, Node> nodeSources) {
+            return targetNode;
+        }
+    }
+}
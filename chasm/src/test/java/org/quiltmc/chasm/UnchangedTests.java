@@ -1,9 +1,31 @@
 package org.quiltmc.chasm;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quiltmc.chasm.api.ClassResult;
+import org.quiltmc.chasm.internal.transformer.ChasmLangTransformer;
+import org.quiltmc.chasm.lang.api.ast.Node;
+import org.quiltmc.chasm.lang.api.metadata.Metadata;
+
 /**
  * Tests for checking that converting a class into Chasm's internal representation and back don't change it.
  */
 public class UnchangedTests extends TestsBase {
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        // Write the touched classes from their nodes instead of returning the original bytes
+        processor.setReuseUnmodified(false);
+    }
+
     @Override
     protected void registerAll() {
         // Empty classes
@@ -24,4 +46,23 @@ public class UnchangedTests extends TestsBase {
         register("other/ExampleClass$ExampleRecord", "unchanged/ExampleClass$ExampleRecord", "touch");
         register("other/ExampleEnum", "unchanged/ExampleEnum", "touch");
     }
+
+    /**
+     * A class that was touched without changing anything should be returned with its original bytes by default.
+     */
+    @Test
+    public void testTouchedClassUnmodified() throws IOException {
+        Path classFile = Paths.get("build/classes/java/testData/other/ExampleClass.class");
+        byte[] classBytes = Files.readAllBytes(classFile);
+
+        processor.setReuseUnmodified(true);
+        processor.addClass(classBytes, new Metadata());
+        Node touch = Node.parse(Paths.get("src/testData/transformers/touch.chasm"));
+        processor.addTransformer(new ChasmLangTransformer("touch", touch, processor.getContext()));
+
+        List<ClassResult> results = processor.process();
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals(ClassResult.Type.UNMODIFIED, results.get(0).getType());
+        Assertions.assertArrayEquals(classBytes, results.get(0).getClassBytes());
+    }
 }
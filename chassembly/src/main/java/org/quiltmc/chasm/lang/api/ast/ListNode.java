@@ -39,6 +39,25 @@ public class ListNode extends Node {
         this.entries.add(node);
     }
 
+    /**
+     * Replaces the entries in {@code [start, end)} with the given nodes.
+     * The remaining entries are moved at most once, so this costs {@code O(size() + replacement.size())}.
+     *
+     * <p>The replacement must not be a view of this list.
+     */
+    public void splice(int start, int end, List<Node> replacement) {
+        List<Node> range = entries.subList(start, end);
+        if (range.size() == replacement.size()) {
+            for (int i = 0; i < replacement.size(); i++) {
+                range.set(i, replacement.get(i));
+            }
+            return;
+        }
+
+        range.clear();
+        entries.addAll(start, replacement);
+    }
+
     /**
      * Gets the node at the given index in this list.
      */
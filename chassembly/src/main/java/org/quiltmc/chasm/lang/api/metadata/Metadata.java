@@ -1,7 +1,9 @@
 package org.quiltmc.chasm.lang.api.metadata;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.quiltmc.chasm.lang.api.ast.Node;
 
@@ -43,6 +45,15 @@ public class Metadata {
         return (T) metadata.get(dataClass);
     }
 
+    /**
+     * Retrieve the types of all attached metadata.
+     *
+     * @return An unmodifiable view of the attached types.
+     */
+    public Set<Class<?>> getTypes() {
+        return Collections.unmodifiableSet(metadata.keySet());
+    }
+
     /**
      * Adds the given metadata to this metadata.
      * Existing metadata of a given type will be overwritten.
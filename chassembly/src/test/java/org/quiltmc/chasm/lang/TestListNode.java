@@ -0,0 +1,42 @@
+package org.quiltmc.chasm.lang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.quiltmc.chasm.lang.api.ast.Ast;
+import org.quiltmc.chasm.lang.api.ast.ListNode;
+import org.quiltmc.chasm.lang.api.ast.Node;
+import org.quiltmc.chasm.lang.api.ast.ValueNode;
+
+public class TestListNode {
+    @Test
+    public void testSplice() {
+        assertSplice("[1, 9, 4]", 1, 3, 9);
+        assertSplice("[1, 8, 9, 3, 4]", 1, 2, 8, 9);
+        assertSplice("[8, 9, 1, 2, 3, 4]", 0, 0, 8, 9);
+        assertSplice("[1, 2, 3, 4, 9]", 4, 4, 9);
+        assertSplice("[1, 4]", 1, 3);
+        assertSplice("[1, 8, 9, 4]", 1, 3, 8, 9);
+        assertSplice("[]", 0, 4);
+    }
+
+    private static void assertSplice(String expected, int start, int end, long... replacement) {
+        ListNode list = new ListNode(new ArrayList<>(Arrays.asList(
+                Ast.literal(1), Ast.literal(2), Ast.literal(3), Ast.literal(4))));
+
+        List<Node> nodes = new ArrayList<>();
+        for (long value : replacement) {
+            nodes.add(Ast.literal(value));
+        }
+        list.splice(start, end, nodes);
+
+        List<Object> values = new ArrayList<>();
+        for (Node node : list.getEntries()) {
+            values.add(((ValueNode<?>) node).getValue());
+        }
+        Assertions.assertEquals(expected, values.toString());
+    }
+}